@@ -0,0 +1,228 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bulk union, intersection and difference of AVL trees built on join and split.
+ * 
+ * Each operation splits the second tree around the root of the first,
+ * recurses on the two halves and joins the results around the root, so
+ * combining trees of sizes m and n (m at most n) takes O(m log(n/m + 1))
+ * work instead of one rebalancing insert per element. The two recursive
+ * halves are independent and run in parallel on a ForkJoinPool once the
+ * subtrees are large enough to pay for it.
+ * 
+ * When a key is in both trees, every object with that key, from either
+ * tree, is folded by a ConflictPolicy into the one object kept. Duplicate
+ * keys within the first tree are kept as they are when the key is not in
+ * the second. Both input trees are consumed and left empty.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class AVLSetOperations {
+    /** Subtrees at least this tall have their halves processed in parallel. */
+    private static final int PARALLEL_HEIGHT = 10;
+
+    /** The supported operations. */
+    public enum Operation { UNION, INTERSECTION, DIFFERENCE }
+
+    /**
+     * Returns a tree holding the objects of both trees.
+     * 
+     * @param first The first tree, consumed
+     * @param second The second tree, consumed
+     * @param policy Chooses between objects with equal keys
+     * @return The union
+     */
+    public static AVLTree union(AVLTree first, AVLTree second, ConflictPolicy policy) {
+        return run(Operation.UNION, first, second, policy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a tree holding the objects whose keys are in both trees.
+     * 
+     * @param first The first tree, consumed
+     * @param second The second tree, consumed
+     * @param policy Chooses between objects with equal keys
+     * @return The intersection
+     */
+    public static AVLTree intersection(AVLTree first, AVLTree second, ConflictPolicy policy) {
+        return run(Operation.INTERSECTION, first, second, policy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a tree holding the objects of the first tree whose keys are not in the second.
+     * 
+     * @param first The first tree, consumed
+     * @param second The second tree, consumed
+     * @return The difference
+     */
+    public static AVLTree difference(AVLTree first, AVLTree second) {
+        return run(Operation.DIFFERENCE, first, second, ConflictPolicy.KEEP_FIRST, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs an operation on a given pool and packages the result as a tree.
+     * 
+     * @param operation The operation
+     * @param first The first tree, consumed
+     * @param second The second tree, consumed
+     * @param policy Chooses between objects with equal keys
+     * @param pool The pool to run on
+     * @return The result tree
+     * @throws IllegalArgumentException if both arguments are the same tree
+     */
+    public static AVLTree run(Operation operation, AVLTree first, AVLTree second,
+                              ConflictPolicy policy, ForkJoinPool pool) {
+        if (first == second) {
+            throw new IllegalArgumentException("Set operations need two distinct trees");
+        }
+        Task task = new Task(operation, first.root, second.root, policy);
+        BinaryTreeNode node = pool.invoke(task);
+        int size;
+        switch (operation) {
+            case UNION:
+                size = first.getSize() + second.getSize() - task.count;
+                break;
+            case INTERSECTION:
+                size = task.count;
+                break;
+            default:
+                size = first.getSize() - task.count;
+                break;
+        }
+        first.replaceRoot(null, 0);
+        second.replaceRoot(null, 0);
+
+        AVLTree result = new AVLTree();
+        result.replaceRoot(node, size);
+        return result;
+    }
+
+    /**
+     * One step of an operation on a pair of subtrees.
+     */
+    private static class Task extends RecursiveTask<BinaryTreeNode> {
+        private static final long serialVersionUID = 1L;
+
+        private final Operation operation;
+        private final BinaryTreeNode first;
+        private final BinaryTreeNode second;
+        private final ConflictPolicy policy;
+
+        /**
+         * Objects kept by an intersection, objects merged away by a union, or
+         * objects of the first tree removed by a difference, counted as the
+         * task runs so the result size needs no walk of the result.
+         */
+        private int count = 0;
+
+        Task(Operation operation, BinaryTreeNode first, BinaryTreeNode second, ConflictPolicy policy) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+            this.policy = policy;
+        }
+
+        @Override
+        protected BinaryTreeNode compute() {
+            if (first == null) {
+                return (operation == Operation.UNION) ? second : null;
+            }
+            if (second == null) {
+                return (operation == Operation.INTERSECTION) ? null : first;
+            }
+
+            // A private tree per task keeps rotation counters off shared state
+            AVLTree ops = new AVLTree();
+            Object key = first.data;
+            AVLTree.Split s = ops.split(second, key);
+
+            // Duplicates of the root key may sit at the inner edges of either subtree
+            BinaryTreeNode firstLeft = first.left;
+            BinaryTreeNode firstRight = first.right;
+            List<Object> firstEqual = Collections.singletonList(key);
+            if (hasEdgeEqual(first)) {
+                AVLTree.Split f = ops.split(first, key);
+                firstLeft = f.left;
+                firstRight = f.right;
+                firstEqual = f.equal;
+            }
+
+            Task leftTask = new Task(operation, firstLeft, s.left, policy);
+            Task rightTask = new Task(operation, firstRight, s.right, policy);
+            BinaryTreeNode left;
+            BinaryTreeNode right;
+            if (ops.height(first) >= PARALLEL_HEIGHT) {
+                leftTask.fork();
+                right = rightTask.compute();
+                left = leftTask.join();
+            } else {
+                left = leftTask.compute();
+                right = rightTask.compute();
+            }
+            count = leftTask.count + rightTask.count;
+
+            if (s.equal.isEmpty()) {
+                return (operation == Operation.INTERSECTION)
+                        ? ops.join(left, right) : joinAll(ops, left, firstEqual, right);
+            }
+            if (operation == Operation.DIFFERENCE) {
+                count += firstEqual.size();
+                return ops.join(left, right);
+            }
+            count += (operation == Operation.INTERSECTION) ? 1 : firstEqual.size() + s.equal.size() - 1;
+            Object kept = firstEqual.get(0);
+            for (Object other : firstEqual.subList(1, firstEqual.size())) {
+                kept = policy.resolve(kept, other);
+            }
+            for (Object other : s.equal) {
+                kept = policy.resolve(kept, other);
+            }
+            return ops.join(left, kept, right);
+        }
+
+        /**
+         * Checks whether a subtree's root key also occurs in its subtrees.
+         * 
+         * Equal keys sort next to the root, so only the largest object of
+         * the left subtree and the smallest of the right need checking.
+         * 
+         * @param node The root of the subtree
+         * @return true if another object has the root's key
+         */
+        private static boolean hasEdgeEqual(BinaryTreeNode node) {
+            Statement key = (Statement) node.data;
+            BinaryTreeNode last = node.left;
+            while (last != null && last.right != null) {
+                last = last.right;
+            }
+            if (last != null && key.compareTo((Statement) last.data) == 0) return true;
+
+            BinaryTreeNode first = node.right;
+            while (first != null && first.left != null) {
+                first = first.left;
+            }
+            return first != null && key.compareTo((Statement) first.data) == 0;
+        }
+
+        /**
+         * Joins two subtrees around a run of equal-keyed objects.
+         * 
+         * @param ops The tree used for joining
+         * @param left The subtree ordered before the objects
+         * @param middle The objects, at least one
+         * @param right The subtree ordered after the objects
+         * @return The root of the joined subtree
+         */
+        private static BinaryTreeNode joinAll(AVLTree ops, BinaryTreeNode left, List<Object> middle,
+                                              BinaryTreeNode right) {
+            for (Object d : middle.subList(0, middle.size() - 1)) {
+                left = ops.join(left, d, null);
+            }
+            return ops.join(left, middle.get(middle.size() - 1), right);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the AVL set operations on trees holding duplicate keys.
+ *
+ * Each case is run for every rotation of the first tree's insertion order,
+ * so duplicates of a node's key end up in its left subtree, its right
+ * subtree and both. Every check prints PASS or FAIL with the statements
+ * expected and found, in order, as term:confidence.
+ *
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class AVLSetOperationsTest {
+    /** Number of failed checks. */
+    private static int failures = 0;
+
+    /**
+     * Main method to execute the set operation checks.
+     *
+     * @param args Command-line arguments (not used)
+     */
+    public static void main(String[] args) {
+        List<Statement> first = statements("a:1.0", "b:1.0", "b:0.5", "b:0.2", "c:1.0", "d:1.0");
+        List<Statement> second = statements("b:0.9", "x:1.0");
+        for (int shift = 0; shift < first.size(); shift++) {
+            List<Statement> order = rotate(first, shift);
+            check("difference, shift " + shift, "a:1.0 c:1.0 d:1.0",
+                    AVLSetOperations.difference(tree(order), tree(second)));
+            check("intersection, shift " + shift, "b:1.0",
+                    AVLSetOperations.intersection(tree(order), tree(second), ConflictPolicy.HIGHER_CONFIDENCE));
+            check("union keep second, shift " + shift, "a:1.0 b:0.9 c:1.0 d:1.0 x:1.0",
+                    AVLSetOperations.union(tree(order), tree(second), ConflictPolicy.KEEP_SECOND));
+        }
+
+        first = statements("a:1.0", "b:0.9", "b:0.1", "c:1.0", "d:1.0");
+        second = statements("b:0.5", "e:1.0");
+        for (int shift = 0; shift < first.size(); shift++) {
+            List<Statement> order = rotate(first, shift);
+            check("union higher confidence, shift " + shift, "a:1.0 b:0.9 c:1.0 d:1.0 e:1.0",
+                    AVLSetOperations.union(tree(order), tree(second), ConflictPolicy.HIGHER_CONFIDENCE));
+        }
+
+        // Duplicates whose key is missing from the second tree are kept as they are
+        second = statements("c:0.5");
+        for (int shift = 0; shift < first.size(); shift++) {
+            List<Statement> order = rotate(first, shift);
+            check("union without conflict, shift " + shift, "a:1.0 b:0.9 b:0.1 c:1.0 d:1.0",
+                    AVLSetOperations.union(tree(order), tree(second), ConflictPolicy.HIGHER_CONFIDENCE));
+            check("difference without conflict, shift " + shift, "a:1.0 b:0.9 b:0.1 d:1.0",
+                    AVLSetOperations.difference(tree(order), tree(second)));
+        }
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+    }
+
+    /**
+     * Compares a result tree with the expected statements and prints the outcome.
+     *
+     * Statements with equal terms are compared as a set, since their order
+     * within the tree depends on its shape.
+     *
+     * @param name The name of the check
+     * @param expected The expected statements in order, separated by spaces
+     * @param result The tree to check
+     */
+    private static void check(String name, String expected, AVLTree result) {
+        String actual = describe(result.getStatements());
+        boolean pass = sorted(actual).equals(sorted(expected)) && result.getSize() == expected.split(" ").length;
+        if (!pass) failures++;
+        System.out.println((pass ? "PASS " : "FAIL ") + name + ": expected [" + expected + "], got [" + actual + "]");
+    }
+
+    /**
+     * Parses statements written as term:confidence.
+     *
+     * @param specs The statements
+     * @return The parsed statements
+     */
+    private static List<Statement> statements(String... specs) {
+        List<Statement> statements = new ArrayList<>();
+        for (String spec : specs) {
+            String[] parts = spec.split(":");
+            statements.add(new Statement(parts[0], parts[0] + " " + parts[1], Double.parseDouble(parts[1])));
+        }
+        return statements;
+    }
+
+    /**
+     * Returns a list rotated left by a number of places.
+     *
+     * @param list The list
+     * @param shift The number of places
+     * @return The rotated copy
+     */
+    private static List<Statement> rotate(List<Statement> list, int shift) {
+        List<Statement> rotated = new ArrayList<>(list.subList(shift, list.size()));
+        rotated.addAll(list.subList(0, shift));
+        return rotated;
+    }
+
+    /**
+     * Builds a tree by inserting statements in order.
+     *
+     * @param statements The statements
+     * @return The tree
+     */
+    private static AVLTree tree(List<Statement> statements) {
+        AVLTree tree = new AVLTree();
+        for (Statement statement : statements) {
+            tree.insert(statement);
+        }
+        return tree;
+    }
+
+    /**
+     * Formats statements as term:confidence separated by spaces.
+     *
+     * @param statements The statements
+     * @return The description
+     */
+    private static String describe(List<Statement> statements) {
+        StringBuilder text = new StringBuilder();
+        for (Statement statement : statements) {
+            if (text.length() > 0) text.append(' ');
+            text.append(statement.getTerm()).append(':').append(statement.getConfidence());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Sorts the entries of a description so that equal terms compare as a set.
+     *
+     * @param description The entries separated by spaces
+     * @return The sorted entries
+     */
+    private static List<String> sorted(String description) {
+        List<String> entries = new ArrayList<>(List.of(description.split(" ")));
+        entries.sort(null);
+        return entries;
+    }
+}
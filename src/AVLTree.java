@@ -1,3 +1,8 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * An implementation of a self-balancing AVL Tree data structure.
  * 
@@ -18,16 +23,16 @@
  */
 public class AVLTree extends BinaryTree { 
     /** Number of comparisons made during insert operations. */
-    private int insertComparisons = 0;
+    private long insertComparisons = 0;
     
     /** Number of comparisons made during search operations. */
-    private int searchComparisons = 0;
+    private long searchComparisons = 0;
     
     /** Number of single rotations performed during tree balancing. */
-    private int singleRotations = 0;
+    private long singleRotations = 0;
     
     /** Number of double rotations performed during tree balancing. */
-    private int doubleRotations = 0;
+    private long doubleRotations = 0;
     
     /** Total time spent on insertion operations in milliseconds. */
     private long insertionTime = 0;
@@ -38,6 +43,76 @@ public class AVLTree extends BinaryTree {
     /** Maximum height reached by the tree. */
     private int maxHeight = 0;
 
+    /** Number of insert operations performed. */
+    private long insertCount = 0;
+
+    /** Number of search operations performed. */
+    private long searchCount = 0;
+
+    /** Total time spent on insertion operations in nanoseconds. */
+    private long insertionNanos = 0;
+
+    /** Total time spent on search operations in nanoseconds. */
+    private long searchNanos = 0;
+
+    /** Number of nodes currently in the tree. */
+    private int size = 0;
+
+    /** Whether updates copy the nodes they change instead of modifying them in place. */
+    private boolean copyOnWrite = false;
+
+    /** The object unlinked by the recursive delete, or null until one is found. */
+    private Object removed = null;
+
+    /** Full-text index updated on every insert, or null if none is attached. */
+    private InvertedIndex invertedIndex = null;
+
+    /**
+     * Attaches a full-text index that is updated as statements are inserted.
+     * 
+     * @param index The index to maintain, or null to stop indexing
+     */
+    public void setInvertedIndex(InvertedIndex index) {
+        invertedIndex = index;
+    }
+
+    /**
+     * Returns the attached full-text index.
+     * 
+     * @return The index, or null if none is attached
+     */
+    public InvertedIndex getInvertedIndex() {
+        return invertedIndex;
+    }
+
+    /**
+     * Enables or disables copy-on-write updates.
+     * 
+     * With copy-on-write enabled, insert and delete never modify a node that
+     * is reachable from the current root. The nodes on the update path are
+     * copied and the new root is published in one write, so searches running
+     * on other threads always see a complete, balanced tree. Only one thread
+     * may update the tree at a time.
+     * 
+     * @param enabled true to copy nodes on update, false to update in place
+     */
+    public void setCopyOnWrite(boolean enabled) {
+        copyOnWrite = enabled;
+    }
+
+    /**
+     * Returns a node that may be modified by the current update.
+     * 
+     * @param node The node about to be modified
+     * @return A copy of the node in copy-on-write mode, otherwise the node itself
+     */
+    private BinaryTreeNode writable(BinaryTreeNode node) {
+        if (!copyOnWrite) return node;
+        BinaryTreeNode copy = new BinaryTreeNode(node.data, node.left, node.right);
+        copy.height = node.height;
+        return copy;
+    }
+
     /**
      * Calculates the height of a given node.
      * 
@@ -77,7 +152,8 @@ public class AVLTree extends BinaryTree {
      */
     public BinaryTreeNode rotateRight(BinaryTreeNode p) {
         singleRotations++;  // Increment rotation counter
-        BinaryTreeNode q = p.left;
+        p = writable(p);
+        BinaryTreeNode q = writable(p.left);
         p.left = q.right;
         q.right = p;
         fixHeight(p);
@@ -93,7 +169,8 @@ public class AVLTree extends BinaryTree {
      */
     public BinaryTreeNode rotateLeft(BinaryTreeNode q) {
         singleRotations++;  // Increment rotation counter
-        BinaryTreeNode p = q.right;
+        q = writable(q);
+        BinaryTreeNode p = writable(q.right);
         q.right = p.left;
         p.left = q;
         fixHeight(q);
@@ -141,7 +218,13 @@ public class AVLTree extends BinaryTree {
         root = insert(d, root);
         long endTime = System.nanoTime();
         insertionTime += (endTime - startTime) / 1_000_000;
+        insertionNanos += endTime - startTime;
+        insertCount++;
+        size++;
         maxHeight = height(root);
+        if (invertedIndex != null && d instanceof Statement) {
+            invertedIndex.add((Statement) d);
+        }
     }
 
     /**
@@ -155,6 +238,7 @@ public class AVLTree extends BinaryTree {
         if (node == null) return new BinaryTreeNode(d, null, null);
 
         insertComparisons++;
+        node = writable(node);
         if (((Comparable) d).compareTo(node.data) <= 0) {
             node.left = insert(d, node.left);
         } else {
@@ -163,6 +247,232 @@ public class AVLTree extends BinaryTree {
         return balance(node);
     }
 
+    /**
+     * Deletes an object from the AVL tree.
+     * 
+     * Removes one node whose data equals the given object, rebalancing on
+     * the way back up. Nodes with an equal key but different data are kept.
+     * 
+     * @param d The object to delete
+     * @return true if a node was removed, false if no node held the object
+     */
+    public boolean delete(Object d) {
+        removed = null;
+        root = delete(d, root);
+        if (removed == null) return false;
+
+        size--;
+        // Remove the instance that was in the tree, which may be a different but equal object
+        if (invertedIndex != null && removed instanceof Statement) {
+            invertedIndex.remove((Statement) removed);
+        }
+        removed = null;
+        return true;
+    }
+
+    /**
+     * Recursive helper method for deleting an object.
+     * 
+     * Equal keys may sit on either side of a node after rotations, so both
+     * subtrees of a node with an equal key are searched.
+     * 
+     * @param d The object to delete
+     * @param node The current node in the recursive traversal
+     * @return The new root of the subtree after deletion and balancing
+     */
+    public BinaryTreeNode delete(Object d, BinaryTreeNode node) {
+        if (node == null) return null;
+
+        int compareResult = ((Statement) d).compareTo((Statement) node.data);
+        if (compareResult == 0 && node.data.equals(d)) {
+            removed = node.data;
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+
+            BinaryTreeNode successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node = writable(node);
+            node.data = successor.data;
+            node.right = deleteMin(node.right);
+            return balance(node);
+        }
+
+        if (compareResult <= 0) {
+            BinaryTreeNode left = delete(d, node.left);
+            if (removed != null) {
+                node = writable(node);
+                node.left = left;
+                return balance(node);
+            }
+        }
+        if (compareResult >= 0) {
+            BinaryTreeNode right = delete(d, node.right);
+            if (removed != null) {
+                node = writable(node);
+                node.right = right;
+                return balance(node);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Removes the leftmost node of a subtree.
+     * 
+     * @param node The root of the subtree
+     * @return The new root of the subtree after removal and balancing
+     */
+    private BinaryTreeNode deleteMin(BinaryTreeNode node) {
+        if (node.left == null) return node.right;
+        node = writable(node);
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    /**
+     * The result of splitting a subtree around a key.
+     */
+    public static class Split {
+        /** Subtree of the objects ordered before the key. */
+        public BinaryTreeNode left;
+
+        /** The objects comparing equal to the key. */
+        public List<Object> equal;
+
+        /** Subtree of the objects ordered after the key. */
+        public BinaryTreeNode right;
+
+        Split(BinaryTreeNode left, List<Object> equal, BinaryTreeNode right) {
+            this.left = left;
+            this.equal = equal;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Joins two subtrees around a middle object into one balanced subtree.
+     * 
+     * Every object in left must order at or before d, and every object in
+     * right at or after it. The taller subtree is descended along its inner
+     * spine to a node of the other's height, where d is attached, and the
+     * path is rebalanced on the way back up. The cost is proportional to the
+     * difference in height. Both subtrees are consumed.
+     * 
+     * @param left The subtree ordered before d
+     * @param d The middle object
+     * @param right The subtree ordered after d
+     * @return The root of the joined subtree
+     */
+    public BinaryTreeNode join(BinaryTreeNode left, Object d, BinaryTreeNode right) {
+        if (height(left) > height(right) + 1) {
+            left = writable(left);
+            left.right = join(left.right, d, right);
+            return balance(left);
+        }
+        if (height(right) > height(left) + 1) {
+            right = writable(right);
+            right.left = join(left, d, right.left);
+            return balance(right);
+        }
+        BinaryTreeNode node = new BinaryTreeNode(d, left, right);
+        fixHeight(node);
+        return node;
+    }
+
+    /**
+     * Joins two subtrees without a middle object.
+     * 
+     * @param left The subtree ordered first
+     * @param right The subtree ordered second
+     * @return The root of the joined subtree
+     */
+    public BinaryTreeNode join(BinaryTreeNode left, BinaryTreeNode right) {
+        if (left == null) return right;
+        BinaryTreeNode last = left;
+        while (last.right != null) {
+            last = last.right;
+        }
+        return join(deleteMax(left), last.data, right);
+    }
+
+    /**
+     * Splits a subtree into the objects before, equal to and after a key.
+     * 
+     * The subtree is consumed. Equal keys may sit on both sides of a node
+     * after rotations, so both subtrees of an equal node are split.
+     * 
+     * @param node The root of the subtree to split
+     * @param key The key to split around
+     * @return The two balanced halves and the equal objects
+     */
+    public Split split(BinaryTreeNode node, Object key) {
+        if (node == null) return new Split(null, new ArrayList<>(), null);
+
+        int compareResult = ((Statement) key).compareTo((Statement) node.data);
+        if (compareResult < 0) {
+            Split s = split(node.left, key);
+            s.right = join(s.right, node.data, node.right);
+            return s;
+        }
+        if (compareResult > 0) {
+            Split s = split(node.right, key);
+            s.left = join(node.left, node.data, s.left);
+            return s;
+        }
+        Split before = split(node.left, key);
+        Split after = split(node.right, key);
+        before.equal.add(node.data);
+        before.equal.addAll(after.equal);
+        before.right = after.right;
+        return before;
+    }
+
+    /**
+     * Removes the rightmost node of a subtree.
+     * 
+     * @param node The root of the subtree
+     * @return The new root of the subtree after removal and balancing
+     */
+    private BinaryTreeNode deleteMax(BinaryTreeNode node) {
+        if (node.right == null) return node.left;
+        node = writable(node);
+        node.right = deleteMax(node.right);
+        return balance(node);
+    }
+
+    /**
+     * Replaces the whole tree with a subtree built elsewhere, such as by join.
+     * 
+     * The caller supplies the size so that replacing the root stays O(1).
+     * 
+     * @param newRoot The root of the new content, or null to empty the tree
+     * @param newSize The number of nodes under newRoot
+     */
+    public void replaceRoot(BinaryTreeNode newRoot, int newSize) {
+        root = newRoot;
+        size = newSize;
+        maxHeight = Math.max(maxHeight, height(newRoot));
+    }
+
+    /**
+     * Returns the statements of the tree in order.
+     * 
+     * The root is read once, so under copy-on-write updates the list is a
+     * consistent snapshot of a single version of the tree.
+     * 
+     * @return The statements, ordered by term
+     */
+    public List<Statement> getStatements() {
+        List<Statement> statements = new ArrayList<>(size);
+        TermCursor cursor = new TermCursor(root);
+        while (cursor.hasNext()) {
+            statements.add(cursor.next());
+        }
+        return statements;
+    }
+
     /**
      * Finds a node with a given key in the tree.
      * 
@@ -174,6 +484,8 @@ public class AVLTree extends BinaryTree {
         BinaryTreeNode result = find(root, key);
         long endTime = System.nanoTime();
         searchTime += (endTime - startTime) / 1_000_000; // Convert to milliseconds
+        searchNanos += endTime - startTime;
+        searchCount++;
         return result;
     }
 
@@ -189,7 +501,7 @@ public class AVLTree extends BinaryTree {
         if (node == null) return null;
 
         Statement currentStatement = (Statement) node.data;
-        int compareResult = key.toLowerCase().compareTo(currentStatement.getTerm().toLowerCase());
+        int compareResult = key.compareToIgnoreCase(currentStatement.getTerm());
 
         if (compareResult == 0) {
             return node;
@@ -200,6 +512,271 @@ public class AVLTree extends BinaryTree {
         }
     }
 
+    /**
+     * Finds the terms within a given edit distance of a key, ignoring case.
+     * 
+     * Terms are visited in tree order by a cursor while a Levenshtein
+     * automaton for the key is driven over them. Whenever a prefix cannot
+     * lead to a match, the cursor seeks past every term sharing that prefix,
+     * so whole subtrees are skipped without being compared. Seeking moves
+     * forward from the cursor's position instead of descending from the root.
+     * 
+     * @param key The key to search for
+     * @param maxDistance The largest accepted edit distance
+     * @return The best-confidence statement of each matching term, ordered by
+     *         distance and then by decreasing confidence
+     */
+    public List<FuzzyMatch> fuzzyFind(String key, int maxDistance) {
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton(key, maxDistance);
+        List<FuzzyMatch> matches = new ArrayList<>();
+        TermCursor cursor = new TermCursor(root);
+        String previous = "";
+
+        while (cursor.hasNext()) {
+            String term = cursor.peekTerm();
+            int shared = 0;
+            while (shared < previous.length() && shared < term.length()
+                    && previous.charAt(shared) == term.charAt(shared)) {
+                shared++;
+            }
+            previous = term;
+
+            int dead = automaton.advance(term, shared);
+            if (dead >= 0) {
+                String next = prefixSuccessor(term.substring(0, dead).toLowerCase());
+                if (next == null) break;
+                cursor.seek(next);
+                continue;
+            }
+
+            // Terms equal ignoring case are adjacent in order, so keep the best while stepping over them
+            Statement best = cursor.next();
+            while (cursor.hasNext() && cursor.peekTerm().equalsIgnoreCase(term)) {
+                Statement duplicate = cursor.next();
+                if (duplicate.getConfidence() > best.getConfidence()) {
+                    best = duplicate;
+                }
+            }
+            if (automaton.isMatch()) {
+                matches.add(new FuzzyMatch(best, automaton.distance()));
+            }
+        }
+
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * An in-order cursor over the statements of a subtree that can seek forward.
+     * 
+     * The stack holds the next node on top and, below it, the ancestors whose
+     * own node and right subtree are still to be visited.
+     */
+    private static class TermCursor {
+        /** Pending nodes, next in order on top. */
+        private final ArrayDeque<BinaryTreeNode> stack = new ArrayDeque<>();
+
+        /**
+         * Positions the cursor on the first node of a subtree.
+         * 
+         * @param root The root of the subtree
+         */
+        TermCursor(BinaryTreeNode root) {
+            for (BinaryTreeNode node = root; node != null; node = node.left) {
+                stack.push(node);
+            }
+        }
+
+        /** @return true if nodes remain */
+        boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /** @return The term of the next node */
+        String peekTerm() {
+            return ((Statement) stack.peek().data).getTerm();
+        }
+
+        /**
+         * Returns the next statement and advances past it.
+         * 
+         * @return The statement
+         */
+        Statement next() {
+            BinaryTreeNode node = stack.pop();
+            for (BinaryTreeNode child = node.right; child != null; child = child.left) {
+                stack.push(child);
+            }
+            return (Statement) node.data;
+        }
+
+        /**
+         * Advances to the first node whose term is at or after a key.
+         * 
+         * Ancestors ordered entirely before the key are popped without
+         * visiting their right subtrees, and the descent restarts only from
+         * the subtree that can still contain the key.
+         * 
+         * @param key The key to seek to, not before the current position
+         */
+        void seek(String key) {
+            while (!stack.isEmpty()) {
+                BinaryTreeNode top = stack.pop();
+                if (key.compareToIgnoreCase(((Statement) top.data).getTerm()) <= 0) {
+                    stack.push(top);
+                    return;
+                }
+                // The right subtree of top sorts before the next ancestor; skip it if that is still too small
+                if (!stack.isEmpty()
+                        && key.compareToIgnoreCase(((Statement) stack.peek().data).getTerm()) > 0) {
+                    continue;
+                }
+                for (BinaryTreeNode node = top.right; node != null; ) {
+                    if (key.compareToIgnoreCase(((Statement) node.data).getTerm()) <= 0) {
+                        stack.push(node);
+                        node = node.left;
+                    } else {
+                        node = node.right;
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the smallest string that sorts after every string with a given
+     * prefix, in the case-insensitive order of the tree.
+     * 
+     * The last character is stepped past any character that folds to a
+     * different one, such as an upper-case letter, since it would otherwise
+     * be compared as its lower-case form.
+     * 
+     * @param prefix The lower-case prefix to skip
+     * @return The successor string, or null if no such string exists
+     */
+    private static String prefixSuccessor(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) return null;
+        char next = (char) (prefix.charAt(end - 1) + 1);
+        while (next < Character.MAX_VALUE && Character.toLowerCase(Character.toUpperCase(next)) != next) {
+            next++;
+        }
+        return prefix.substring(0, end - 1) + next;
+    }
+
+    /**
+     * Returns the number of comparisons made during insert operations.
+     * 
+     * @return The insert comparison count
+     */
+    public long getInsertComparisons() {
+        return insertComparisons;
+    }
+
+    /**
+     * Returns the number of comparisons made during search operations.
+     * 
+     * @return The search comparison count
+     */
+    public long getSearchComparisons() {
+        return searchComparisons;
+    }
+
+    /**
+     * Returns the number of single rotations performed.
+     * 
+     * @return The single rotation count
+     */
+    public long getSingleRotations() {
+        return singleRotations;
+    }
+
+    /**
+     * Returns the number of double rotations performed.
+     * 
+     * @return The double rotation count
+     */
+    public long getDoubleRotations() {
+        return doubleRotations;
+    }
+
+    /**
+     * Returns the total time spent on insertions.
+     * 
+     * @return The insertion time in milliseconds
+     */
+    public long getInsertionTime() {
+        return insertionTime;
+    }
+
+    /**
+     * Returns the total time spent on searches.
+     * 
+     * @return The search time in milliseconds
+     */
+    public long getSearchTime() {
+        return searchTime;
+    }
+
+    /**
+     * Returns the maximum height reached by the tree.
+     * 
+     * @return The maximum height
+     */
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Returns the number of insert operations performed.
+     * 
+     * @return The insert count
+     */
+    public long getInsertCount() {
+        return insertCount;
+    }
+
+    /**
+     * Returns the number of search operations performed.
+     * 
+     * @return The search count
+     */
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    /**
+     * Returns the total time spent on insertions at full resolution.
+     * 
+     * @return The insertion time in nanoseconds
+     */
+    public long getInsertionNanos() {
+        return insertionNanos;
+    }
+
+    /**
+     * Returns the total time spent on searches at full resolution.
+     * 
+     * @return The search time in nanoseconds
+     */
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    /**
+     * Returns the number of nodes in the tree without walking it.
+     * 
+     * @return The size of the tree
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
     /**
      * Prints performance metrics of the AVL tree operations.
      * 
@@ -0,0 +1,353 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Live export of an AVLTree's counters while the process runs.
+ * 
+ * The counters are read straight from the tree's fields without locking,
+ * so the tree pays nothing extra per operation; values read from another
+ * thread may lag slightly behind the tree.
+ * 
+ * The same figures are available as a JMX MBean and as Prometheus text
+ * from a loopback HTTP endpoint. {@code /metrics} returns cumulative
+ * counters and gauges. {@code /metrics?delta} returns the change in each
+ * counter since the previous delta read, with per-second and
+ * per-operation rates over that interval, and starts a new interval.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class AVLTreeMetrics implements AVLTreeMetricsMBean {
+    /** Positions of the counters in Sample.values. */
+    private static final int SEARCH_COMPARISONS = 1;
+    private static final int SINGLE_ROTATIONS = 2;
+    private static final int DOUBLE_ROTATIONS = 3;
+    private static final int INSERTION_NANOS = 4;
+    private static final int SEARCH_NANOS = 5;
+    private static final int INSERTS = 6;
+    private static final int SEARCHES = 7;
+
+    /**
+     * Names of the sampled counters, in the order of Sample.values. Times
+     * are sampled in nanoseconds and exported in seconds.
+     */
+    private static final String[] COUNTERS = {
+        "insert_comparisons", "search_comparisons", "single_rotations", "double_rotations",
+        "insertion_seconds", "search_seconds", "inserts", "searches"
+    };
+
+    /** The tree being observed. */
+    private final AVLTree tree;
+
+    /** Counter values at the start of the current interval. */
+    private Sample intervalStart;
+
+    /** HTTP endpoint, or null if not started. */
+    private HttpServer http = null;
+
+    /**
+     * Counter values read at one instant.
+     */
+    private static class Sample {
+        /** The counters, named by COUNTERS. */
+        final long[] values;
+
+        /** When the counters were read. */
+        final long nanoTime;
+
+        Sample(AVLTree tree) {
+            values = new long[] {
+                tree.getInsertComparisons(), tree.getSearchComparisons(),
+                tree.getSingleRotations(), tree.getDoubleRotations(),
+                tree.getInsertionNanos(), tree.getSearchNanos(),
+                tree.getInsertCount(), tree.getSearchCount()
+            };
+            nanoTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Constructs an exporter for a tree.
+     * 
+     * @param tree The tree to observe
+     */
+    public AVLTreeMetrics(AVLTree tree) {
+        this.tree = tree;
+        this.intervalStart = new Sample(tree);
+    }
+
+    /**
+     * Registers the MBean with the platform MBean server.
+     * 
+     * @param name Distinguishes this tree from others in the same process
+     * @throws JMException if registration fails
+     */
+    public void register(String name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, new ObjectName("GenericsKB:type=AVLTree,name=" + name));
+    }
+
+    /**
+     * Serves Prometheus text on a loopback port.
+     * 
+     * @param port The port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void startHttp(int port) throws IOException {
+        if (http != null) return;
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/metrics", this::handle);
+        http.start();
+    }
+
+    /**
+     * Stops the HTTP endpoint.
+     */
+    public synchronized void stopHttp() {
+        if (http != null) {
+            http.stop(0);
+            http = null;
+        }
+    }
+
+    /**
+     * Answers one scrape.
+     * 
+     * @param exchange The HTTP exchange
+     * @throws IOException if the response cannot be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        boolean delta = query != null && query.contains("delta");
+        byte[] body = (delta ? deltaText() : cumulativeText()).getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Formats cumulative counters and current gauges.
+     * 
+     * @return The Prometheus exposition text
+     */
+    public String cumulativeText() {
+        Sample now = new Sample(tree);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < COUNTERS.length; i++) {
+            appendMetric(text, "avl_" + COUNTERS[i] + "_total", "counter", exported(now.values[i], i));
+        }
+        appendGauges(text);
+        return text.toString();
+    }
+
+    /**
+     * Formats counter changes and rates since the previous delta read, then
+     * starts a new interval.
+     * 
+     * @return The Prometheus exposition text
+     */
+    public String deltaText() {
+        Sample start;
+        Sample now;
+        synchronized (this) {
+            start = intervalStart;
+            now = new Sample(tree);
+            intervalStart = now;
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < COUNTERS.length; i++) {
+            appendMetric(text, "avl_" + COUNTERS[i] + "_delta", "gauge", exported(change(start, now, i), i));
+        }
+        appendMetric(text, "avl_interval_seconds", "gauge", seconds(start, now));
+        appendMetric(text, "avl_insert_rate", "gauge", insertRate(start, now));
+        appendMetric(text, "avl_search_rate", "gauge", searchRate(start, now));
+        appendMetric(text, "avl_rotation_rate", "gauge", rotationRate(start, now));
+        appendMetric(text, "avl_rotations_per_insert", "gauge", rotationsPerInsert(start, now));
+        appendMetric(text, "avl_comparisons_per_search", "gauge", comparisonsPerSearch(start, now));
+        appendGauges(text);
+        return text.toString();
+    }
+
+    /**
+     * Appends the size and height gauges.
+     * 
+     * @param text The text to append to
+     */
+    private void appendGauges(StringBuilder text) {
+        appendMetric(text, "avl_size", "gauge", tree.getSize());
+        appendMetric(text, "avl_height", "gauge", tree.height(tree.root));
+        appendMetric(text, "avl_max_height", "gauge", tree.getMaxHeight());
+    }
+
+    /**
+     * Appends one metric with its type line.
+     * 
+     * @param text The text to append to
+     * @param name The metric name
+     * @param type The Prometheus metric type
+     * @param value The value
+     */
+    private static void appendMetric(StringBuilder text, String name, String type, double value) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append(name).append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+        text.append('\n');
+    }
+
+    /**
+     * Converts a counter value to the unit it is exported in.
+     * 
+     * @param value The sampled value
+     * @param counter The counter's position in Sample.values
+     * @return The value in seconds for times, otherwise unchanged
+     */
+    private static double exported(long value, int counter) {
+        if (counter == INSERTION_NANOS || counter == SEARCH_NANOS) {
+            return value / 1e9;
+        }
+        return value;
+    }
+
+    /** @return The length of the interval between two samples in seconds */
+    private static double seconds(Sample start, Sample now) {
+        return Math.max(now.nanoTime - start.nanoTime, 1) / 1e9;
+    }
+
+    /** @return The change in one counter between two samples */
+    private static long change(Sample start, Sample now, int counter) {
+        return now.values[counter] - start.values[counter];
+    }
+
+    /** @return Inserts per second between two samples */
+    private static double insertRate(Sample start, Sample now) {
+        return change(start, now, INSERTS) / seconds(start, now);
+    }
+
+    /** @return Searches per second between two samples */
+    private static double searchRate(Sample start, Sample now) {
+        return change(start, now, SEARCHES) / seconds(start, now);
+    }
+
+    /** @return Single and double rotations per second between two samples */
+    private static double rotationRate(Sample start, Sample now) {
+        return rotations(start, now) / seconds(start, now);
+    }
+
+    /** @return Rotations per insert between two samples */
+    private static double rotationsPerInsert(Sample start, Sample now) {
+        long inserts = change(start, now, INSERTS);
+        return inserts == 0 ? 0 : (double) rotations(start, now) / inserts;
+    }
+
+    /** @return Search comparisons per search between two samples */
+    private static double comparisonsPerSearch(Sample start, Sample now) {
+        long searches = change(start, now, SEARCHES);
+        return searches == 0 ? 0 : (double) change(start, now, SEARCH_COMPARISONS) / searches;
+    }
+
+    /** @return Single plus double rotations between two samples */
+    private static long rotations(Sample start, Sample now) {
+        return change(start, now, SINGLE_ROTATIONS) + change(start, now, DOUBLE_ROTATIONS);
+    }
+
+    @Override
+    public long getInsertComparisons() {
+        return tree.getInsertComparisons();
+    }
+
+    @Override
+    public long getSearchComparisons() {
+        return tree.getSearchComparisons();
+    }
+
+    @Override
+    public long getSingleRotations() {
+        return tree.getSingleRotations();
+    }
+
+    @Override
+    public long getDoubleRotations() {
+        return tree.getDoubleRotations();
+    }
+
+    @Override
+    public double getInsertionSeconds() {
+        return tree.getInsertionNanos() / 1e9;
+    }
+
+    @Override
+    public double getSearchSeconds() {
+        return tree.getSearchNanos() / 1e9;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return tree.getMaxHeight();
+    }
+
+    @Override
+    public int getSize() {
+        return tree.getSize();
+    }
+
+    @Override
+    public int getHeight() {
+        return tree.height(tree.root);
+    }
+
+    @Override
+    public long getInserts() {
+        return tree.getInsertCount();
+    }
+
+    @Override
+    public long getSearches() {
+        return tree.getSearchCount();
+    }
+
+    @Override
+    public synchronized double getInsertRate() {
+        return insertRate(intervalStart, new Sample(tree));
+    }
+
+    @Override
+    public synchronized double getSearchRate() {
+        return searchRate(intervalStart, new Sample(tree));
+    }
+
+    @Override
+    public synchronized double getRotationRate() {
+        return rotationRate(intervalStart, new Sample(tree));
+    }
+
+    @Override
+    public synchronized double getRotationsPerInsert() {
+        return rotationsPerInsert(intervalStart, new Sample(tree));
+    }
+
+    @Override
+    public synchronized double getComparisonsPerSearch() {
+        return comparisonsPerSearch(intervalStart, new Sample(tree));
+    }
+
+    @Override
+    public synchronized void resetInterval() {
+        intervalStart = new Sample(tree);
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Management interface exposing the counters of an AVLTree over JMX.
+ * 
+ * Counters are cumulative since the tree was created. Rates are measured
+ * over the interval since the previous call to {@link #resetInterval()}.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public interface AVLTreeMetricsMBean {
+    /** @return Comparisons made during inserts */
+    long getInsertComparisons();
+
+    /** @return Comparisons made during searches */
+    long getSearchComparisons();
+
+    /** @return Single rotations performed */
+    long getSingleRotations();
+
+    /** @return Double rotations performed */
+    long getDoubleRotations();
+
+    /** @return Total insertion time in seconds, at nanosecond resolution */
+    double getInsertionSeconds();
+
+    /** @return Total search time in seconds, at nanosecond resolution */
+    double getSearchSeconds();
+
+    /** @return Maximum height reached */
+    int getMaxHeight();
+
+    /** @return Number of nodes in the tree */
+    int getSize();
+
+    /** @return Current height of the tree */
+    int getHeight();
+
+    /** @return Insert operations performed */
+    long getInserts();
+
+    /** @return Search operations performed */
+    long getSearches();
+
+    /** @return Inserts per second over the current interval */
+    double getInsertRate();
+
+    /** @return Searches per second over the current interval */
+    double getSearchRate();
+
+    /** @return Rotations per second over the current interval */
+    double getRotationRate();
+
+    /** @return Rotations per insert over the current interval */
+    double getRotationsPerInsert();
+
+    /** @return Comparisons per search over the current interval */
+    double getComparisonsPerSearch();
+
+    /** Starts a new interval for the rate attributes. */
+    void resetInterval();
+}
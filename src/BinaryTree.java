@@ -9,8 +9,13 @@
  * @since 2017-03-26
  */
 public class BinaryTree {
-    /** The root node of the binary tree. */
-    BinaryTreeNode root;
+    /**
+     * The root node of the binary tree.
+     * 
+     * Volatile so that a root published by a copy-on-write update is seen
+     * by readers on other threads.
+     */
+    volatile BinaryTreeNode root;
     
     /**
      * Constructs an empty binary tree.
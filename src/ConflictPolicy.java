@@ -0,0 +1,26 @@
+/**
+ * Chooses which of two equal-keyed objects a set operation keeps.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public interface ConflictPolicy {
+    /** Keeps the object from the first tree. */
+    ConflictPolicy KEEP_FIRST = (first, second) -> first;
+
+    /** Keeps the object from the second tree. */
+    ConflictPolicy KEEP_SECOND = (first, second) -> second;
+
+    /** Keeps the Statement with the higher confidence, or the first on a tie. */
+    ConflictPolicy HIGHER_CONFIDENCE = (first, second) ->
+            ((Statement) second).getConfidence() > ((Statement) first).getConfidence() ? second : first;
+
+    /**
+     * Resolves a conflict between two objects with equal keys.
+     * 
+     * @param first The object from the first tree
+     * @param second The object from the second tree
+     * @return The object to keep
+     */
+    Object resolve(Object first, Object second);
+}
@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An AVL tree whose runtime inserts and deletes survive a restart.
+ * 
+ * On open, the tree is loaded from the latest snapshot if there is one,
+ * otherwise from the base knowledge base file, and the write-ahead log is
+ * replayed on top. Snapshots hold only the statements, so an InvertedIndex
+ * is attached to the tree before loading and rebuilt as they are inserted.
+ * Every later change is logged before it is acknowledged. Compaction
+ * writes a fresh snapshot of the tree and empties the log, and can be
+ * scheduled to run periodically.
+ * 
+ * Changes are applied to the tree in log order, and only once their log
+ * records have been written, so readers never see a change that could be
+ * lost; callers on different threads share group commits of the log. After
+ * a log write fails, further changes are refused until a compaction writes
+ * the synced state to a snapshot and starts a fresh log. A change reported
+ * as failed may still be recovered after a restart if its record reached
+ * the disk before the error.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class DurableKB implements AutoCloseable {
+    /** The tree holding the knowledge base. */
+    private final AVLTree tree;
+
+    /** The snapshot file. */
+    private final String snapshotPath;
+
+    /** Log of changes since the snapshot. */
+    private final WriteAheadLog log;
+
+    /** Runs periodic compaction, or null if none is scheduled. */
+    private ScheduledExecutorService compactor = null;
+
+    /** Number of compactions run. */
+    private int compactions = 0;
+
+    /** Number of logged changes replayed when the knowledge base was opened. */
+    private final int replayedChanges;
+
+    /** Logged changes waiting for their records to be synced, in log order. */
+    private final ArrayDeque<Change> unapplied = new ArrayDeque<>();
+
+    /**
+     * A change whose log record has been queued.
+     */
+    private static class Change {
+        /** The log sequence number of the record. */
+        final long sequence;
+
+        /** WriteAheadLog.INSERT or WriteAheadLog.DELETE. */
+        final byte op;
+
+        /** The statement inserted or deleted. */
+        final Statement statement;
+
+        /** Whether a delete removed a statement, set once applied. */
+        boolean removed = false;
+
+        Change(long sequence, byte op, Statement statement) {
+            this.sequence = sequence;
+            this.op = op;
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Opens a knowledge base, recovering changes made before a restart.
+     * 
+     * @param tree An empty tree to load into; an index is attached if it has none
+     * @param baseKbPath The knowledge base file used when there is no snapshot
+     * @param snapshotPath The snapshot file
+     * @param logPath The write-ahead log file
+     * @param durable true to force each group of log records to disk
+     * @throws IOException if the knowledge base cannot be recovered
+     */
+    public DurableKB(AVLTree tree, String baseKbPath, String snapshotPath, String logPath, boolean durable)
+            throws IOException {
+        this.tree = tree;
+        this.snapshotPath = snapshotPath;
+        if (tree.getInvertedIndex() == null) {
+            tree.setInvertedIndex(new InvertedIndex());
+        }
+
+        List<Statement> statements;
+        long covered = 0;
+        if (Files.exists(Paths.get(snapshotPath))) {
+            KBSnapshot.Contents snapshot = KBSnapshot.read(snapshotPath);
+            statements = snapshot.statements;
+            covered = snapshot.sequence;
+        } else {
+            statements = Statement.readAll(baseKbPath);
+        }
+        for (Statement statement : statements) {
+            tree.insert(statement);
+        }
+
+        log = new WriteAheadLog(logPath, durable);
+        replayedChanges = log.replay(tree, covered);
+    }
+
+    /**
+     * Returns the tree holding the knowledge base.
+     * 
+     * @return The tree
+     */
+    public AVLTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Returns the full-text index rebuilt over the tree's statements.
+     * 
+     * @return The inverted index
+     */
+    public InvertedIndex getInvertedIndex() {
+        return tree.getInvertedIndex();
+    }
+
+    /**
+     * Returns the number of logged changes replayed on open.
+     * 
+     * @return The replayed change count
+     */
+    public int getReplayedChanges() {
+        return replayedChanges;
+    }
+
+    /**
+     * Inserts a statement once it has been logged.
+     * 
+     * @param statement The statement to insert
+     * @throws IOException if the change cannot be logged; the tree is then unchanged
+     */
+    public void insert(Statement statement) throws IOException {
+        logAndApply(WriteAheadLog.INSERT, statement);
+    }
+
+    /**
+     * Deletes a statement once the deletion has been logged.
+     * 
+     * @param statement The statement to delete
+     * @return true if a statement was removed
+     * @throws IOException if the change cannot be logged; the tree is then unchanged
+     */
+    public boolean delete(Statement statement) throws IOException {
+        return logAndApply(WriteAheadLog.DELETE, statement).removed;
+    }
+
+    /**
+     * Logs a change, waits for its record to be written and then applies it.
+     * 
+     * @param op WriteAheadLog.INSERT or WriteAheadLog.DELETE
+     * @param statement The statement inserted or deleted
+     * @return The applied change
+     * @throws IOException if the change cannot be logged
+     */
+    private Change logAndApply(byte op, Statement statement) throws IOException {
+        Change change;
+        synchronized (this) {
+            change = new Change(log.enqueue(op, statement), op, statement);
+            unapplied.add(change);
+        }
+        try {
+            log.sync(change.sequence);
+        } finally {
+            synchronized (this) {
+                applySynced();
+            }
+        }
+        return change;
+    }
+
+    /**
+     * Applies, in log order, every queued change whose record has been
+     * written. If the log has failed, the remaining changes can never be
+     * written and are dropped.
+     */
+    private void applySynced() {
+        long synced = log.getSynced();
+        while (!unapplied.isEmpty() && unapplied.peek().sequence <= synced) {
+            Change change = unapplied.poll();
+            if (change.op == WriteAheadLog.INSERT) {
+                tree.insert(change.statement);
+            } else {
+                change.removed = tree.delete(change.statement);
+            }
+        }
+        if (log.hasFailed()) {
+            unapplied.clear();
+        }
+    }
+
+    /**
+     * Folds the log into a fresh snapshot and empties it.
+     * 
+     * The snapshot is on disk before the log is truncated, and records the
+     * last log sequence number it includes. A crash before the log is
+     * truncated therefore leaves records that replay skips rather than
+     * applying twice, so a crash at any point leaves a recoverable pair of
+     * files.
+     * 
+     * Queued records are written and applied first. If the log has failed,
+     * the snapshot holds every change that was written before the failure,
+     * and the fresh log accepts changes again.
+     * 
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void compact() throws IOException {
+        try {
+            log.sync(log.getRecords());
+        } catch (IOException e) {
+            // The log has failed; the snapshot captures what was written before it
+        }
+        applySynced();
+        KBSnapshot.write(tree, snapshotPath, log.getSynced());
+        log.reset();
+        compactions++;
+    }
+
+    /**
+     * Compacts periodically once the log has grown past a size.
+     * 
+     * @param intervalSeconds How often to check the log
+     * @param minLogBytes The log size below which compaction is skipped
+     */
+    public synchronized void scheduleCompaction(long intervalSeconds, long minLogBytes) {
+        if (compactor != null) return;
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kb-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                if (log.size() >= minLogBytes) {
+                    compact();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the number of compactions run.
+     * 
+     * @return The compaction count
+     */
+    public synchronized int getCompactions() {
+        return compactions;
+    }
+
+    /**
+     * Returns the write-ahead log.
+     * 
+     * @return The log
+     */
+    public WriteAheadLog getLog() {
+        return log;
+    }
+
+    /**
+     * Stops compaction and closes the log.
+     * 
+     * @throws IOException if the log cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (compactor != null) {
+                compactor.shutdownNow();
+            }
+        }
+        log.close();
+    }
+}
@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Checks that a DurableKB recovers the same tree after a crash at each
+ * point of its write and compaction cycle.
+ *
+ * A crash is simulated by closing the log without compacting and opening
+ * a new DurableKB over the same files. A failed log write is simulated by
+ * closing the log underneath the knowledge base. Every check prints PASS
+ * or FAIL.
+ *
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class DurableKBTest {
+    /** Number of failed checks. */
+    private static int failures = 0;
+
+    /**
+     * Main method to execute the crash recovery checks.
+     *
+     * @param args Command-line arguments (not used)
+     * @throws IOException if the temporary files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("durable-kb-test");
+        Path base = dir.resolve("base.txt");
+        Files.write(base, Arrays.asList("cat\tCats are animals.\t1.0", "ant\tAnts are insects.\t1.0"));
+        String snapshot = dir.resolve("kb.snapshot").toString();
+        String log = dir.resolve("kb.wal").toString();
+
+        // Crash before any compaction: the log alone carries the changes
+        DurableKB kb = open(base, snapshot, log);
+        kb.insert(new Statement("dog", "Dogs are mammals.", 1.0));
+        kb.insert(new Statement("cow", "Cows are mammals.", 1.0));
+        kb.delete(new Statement("cat", "Cats are animals.", 1.0));
+        kb.close();
+
+        kb = open(base, snapshot, log);
+        check("log replayed after crash", kb.getReplayedChanges() == 3);
+        checkContents("contents after log replay", kb);
+
+        // Crash after the snapshot is renamed into place but before the log is reset
+        KBSnapshot.write(kb.getTree(), snapshot, kb.getLog().getRecords());
+        kb.close();
+
+        kb = open(base, snapshot, log);
+        check("covered records skipped", kb.getReplayedChanges() == 0);
+        checkContents("contents after crash during compaction", kb);
+
+        // Changes made after a completed compaction are replayed on top of the snapshot
+        kb.compact();
+        kb.insert(new Statement("eel", "Eels are fish.", 1.0));
+        kb.close();
+
+        kb = open(base, snapshot, log);
+        check("only later records replayed", kb.getReplayedChanges() == 1);
+        check("later insert recovered", kb.getTree().find("eel") != null && kb.getTree().getSize() == 4);
+
+        // A failed log write leaves the tree unchanged and refuses later changes
+        kb.getLog().close();
+        check("insert after failed write rejected", fails(kb, new Statement("fox", "Foxes are mammals.", 1.0)));
+        check("failed insert not applied", kb.getTree().find("fox") == null);
+        check("later insert refused", fails(kb, new Statement("gnu", "Gnus are mammals.", 1.0)));
+        check("refused insert not applied", kb.getTree().find("gnu") == null && kb.getTree().getSize() == 4);
+        try {
+            kb.close();
+        } catch (IOException e) {
+            // The log was closed underneath the knowledge base
+        }
+
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+    }
+
+    /**
+     * Attempts an insert that is expected to fail.
+     *
+     * @param kb The knowledge base
+     * @param statement The statement to insert
+     * @return true if the insert threw an IOException
+     */
+    private static boolean fails(DurableKB kb, Statement statement) {
+        try {
+            kb.insert(statement);
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Opens the knowledge base over the test files.
+     *
+     * @param base The base knowledge base file
+     * @param snapshot The snapshot file
+     * @param log The log file
+     * @return The opened knowledge base
+     * @throws IOException if it cannot be recovered
+     */
+    private static DurableKB open(Path base, String snapshot, String log) throws IOException {
+        return new DurableKB(new AVLTree(), base.toString(), snapshot, log, true);
+    }
+
+    /**
+     * Checks that the tree and index hold ant, dog and cow exactly once each.
+     *
+     * @param name The name of the check
+     * @param kb The recovered knowledge base
+     */
+    private static void checkContents(String name, DurableKB kb) {
+        AVLTree tree = kb.getTree();
+        boolean pass = tree.getSize() == 3 && tree.find("cat") == null
+                && tree.find("ant") != null && tree.find("dog") != null && tree.find("cow") != null
+                && kb.getInvertedIndex().and("dogs").size() == 1
+                && kb.getInvertedIndex().and("cats").isEmpty();
+        check(name + " (size " + tree.getSize() + ")", pass);
+    }
+
+    /**
+     * Prints the outcome of one check.
+     *
+     * @param name The name of the check
+     * @param pass Whether the check passed
+     */
+    private static void check(String name, boolean pass) {
+        if (!pass) failures++;
+        System.out.println((pass ? "PASS " : "FAIL ") + name);
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the AVL tree scaling experiment and writes one CSV row per run.
+ * 
+ * For each subset size, a random subset of the knowledge base is loaded
+ * into a fresh AVLTree and the query file is searched against it. Each
+ * size is repeated with different seeds. Every figure in the CSV comes
+ * from the Java tree's own counters, so graph.R only has to aggregate and
+ * plot.
+ * 
+ * Comparison, rotation and height counts depend only on the seed, so runs
+ * are counted in parallel on all cores. The insert_ns and search_ns
+ * columns come from a second pass that repeats each run on a single
+ * thread, so timings are not inflated by runs competing for cores, caches
+ * and memory bandwidth.
+ * 
+ * Usage: java ExperimentRunner [kb] [queries] [minSize] [maxSize] [step]
+ * [repetitions] [output.csv]
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class ExperimentRunner {
+    /** Column names of the CSV output. */
+    private static final String HEADER = "size,run,seed,insert_comparisons,search_comparisons,searches,found,"
+            + "single_rotations,double_rotations,height,insert_ns,search_ns";
+
+    /**
+     * Loads one random subset of the knowledge base into a fresh tree.
+     * 
+     * @param statements The full knowledge base
+     * @param size The subset size
+     * @param seed The seed used to pick the subset
+     * @return The loaded tree
+     */
+    private static AVLTree build(List<Statement> statements, int size, long seed) {
+        List<Statement> subset = new ArrayList<>(statements);
+        Collections.shuffle(subset, new Random(seed));
+
+        AVLTree tree = new AVLTree();
+        for (int i = 0; i < size && i < subset.size(); i++) {
+            tree.insert(subset.get(i));
+        }
+        return tree;
+    }
+
+    /**
+     * Loads one subset, runs the queries and returns the counter columns.
+     * 
+     * @param statements The full knowledge base
+     * @param queries The queries to search for
+     * @param size The subset size
+     * @param run The repetition number
+     * @param seed The seed used to pick the subset
+     * @return The CSV row up to, but not including, the timing columns
+     */
+    private static String countRun(List<Statement> statements, List<String> queries, int size, int run, long seed) {
+        AVLTree tree = build(statements, size, seed);
+        int found = 0;
+        for (String query : queries) {
+            if (tree.find(query) != null) found++;
+        }
+
+        return size + "," + run + "," + seed + ","
+                + tree.getInsertComparisons() + "," + tree.getSearchComparisons() + ","
+                + tree.getSearchCount() + "," + found + ","
+                + tree.getSingleRotations() + "," + tree.getDoubleRotations() + ","
+                + tree.getHeight();
+    }
+
+    /**
+     * Repeats one run on the calling thread and returns its timing columns.
+     * 
+     * @param statements The full knowledge base
+     * @param queries The queries to search for
+     * @param size The subset size
+     * @param seed The seed used to pick the subset
+     * @return The insert_ns and search_ns columns
+     */
+    private static String timeRun(List<Statement> statements, List<String> queries, int size, long seed) {
+        AVLTree tree = build(statements, size, seed);
+        for (String query : queries) {
+            tree.find(query);
+        }
+        return tree.getInsertionNanos() + "," + tree.getSearchNanos();
+    }
+
+    /**
+     * Runs the experiment.
+     * 
+     * @param args Optional file names, size range, repetitions and output file
+     * @throws IOException if an input file cannot be read or the CSV cannot be written
+     * @throws InterruptedException if interrupted while waiting for runs
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String kbFile = (args.length > 0) ? args[0] : "GenericsKB.txt";
+        String queryFile = (args.length > 1) ? args[1] : "GenericsKB-queries.txt";
+        int minSize = (args.length > 2) ? Integer.parseInt(args[2]) : 5000;
+        int maxSize = (args.length > 3) ? Integer.parseInt(args[3]) : 50000;
+        int step = (args.length > 4) ? Integer.parseInt(args[4]) : 5000;
+        int repetitions = (args.length > 5) ? Integer.parseInt(args[5]) : 10;
+        String outputFile = (args.length > 6) ? args[6] : "experiment.csv";
+
+        List<Statement> statements = Statement.readAll(kbFile);
+        List<String> queries = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(queryFile))) {
+            line = line.trim();
+            if (!line.isEmpty()) queries.add(line);
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(cores);
+        List<Future<String>> runs = new ArrayList<>();
+        List<int[]> sizes = new ArrayList<>();
+        for (int size = minSize; size <= maxSize; size += step) {
+            for (int run = 0; run < repetitions; run++) {
+                final int n = size;
+                final int r = run;
+                runs.add(pool.submit(() -> countRun(statements, queries, n, r, seed(n, r))));
+                sizes.add(new int[] {n, r});
+            }
+        }
+
+        long startTime = System.nanoTime();
+        List<String> counts = new ArrayList<>();
+        try {
+            for (Future<String> run : runs) {
+                counts.add(run.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Experiment run failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        long countTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        try (PrintWriter out = new PrintWriter(outputFile)) {
+            out.println(HEADER);
+            for (int i = 0; i < counts.size(); i++) {
+                int n = sizes.get(i)[0];
+                int r = sizes.get(i)[1];
+                out.println(counts.get(i) + "," + timeRun(statements, queries, n, seed(n, r)));
+            }
+        }
+        System.out.println("Wrote " + runs.size() + " runs to " + outputFile + ": counted on " + cores
+                + " threads in " + countTime / 1_000_000 + " ms, timed on one thread in "
+                + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Returns the seed of one run.
+     * 
+     * @param size The subset size
+     * @param run The repetition number
+     * @return The seed used to pick the subset
+     */
+    private static long seed(int size, int run) {
+        return 1_000_003L * size + run;
+    }
+}
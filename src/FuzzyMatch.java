@@ -0,0 +1,62 @@
+/**
+ * A single result of a fuzzy term lookup.
+ * 
+ * Pairs the best-confidence Statement stored under a matching term with
+ * the edit distance between that term and the query.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class FuzzyMatch implements Comparable<FuzzyMatch> {
+    /** The matched statement. */
+    private final Statement statement;
+
+    /** Edit distance between the query and the statement's term. */
+    private final int distance;
+
+    /**
+     * Constructs a fuzzy match.
+     * 
+     * @param statement The matched statement
+     * @param distance The edit distance from the query
+     */
+    public FuzzyMatch(Statement statement, int distance) {
+        this.statement = statement;
+        this.distance = distance;
+    }
+
+    /**
+     * Get the matched statement
+     * @return The Statement
+     */
+    public Statement getStatement() {
+        return statement;
+    }
+
+    /**
+     * Get the edit distance from the query
+     * @return The distance as an int
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Orders matches by increasing distance, then by decreasing confidence.
+     * 
+     * @param other The match to compare with
+     * @return negative if this match ranks first, positive if it ranks after
+     */
+    @Override
+    public int compareTo(FuzzyMatch other) {
+        if (distance != other.distance) {
+            return Integer.compare(distance, other.distance);
+        }
+        return Double.compare(other.statement.getConfidence(), statement.getConfidence());
+    }
+
+    @Override
+    public String toString() {
+        return statement.getTerm() + " (distance " + distance + ", confidence " + statement.getConfidence() + ")";
+    }
+}
@@ -8,8 +8,7 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.io.FileOutputStream;
+import java.util.List;
 
 /**
  * Application for loading a knowledge base into an AVL tree
@@ -20,23 +19,91 @@ public class GenericsKbAVLApp {
     // Ensure your AVLTree is generic: AVLTree<Statement>
     private AVLTree<Statement> avl = new AVLTree<>();
 
+    /** Full-text index over the loaded sentences, filled as the tree is built. */
+    private InvertedIndex sentenceIndex = new InvertedIndex();
+
+    /** The mapped knowledge base behind avl's lazy statements, or null if loaded eagerly. */
+    private MappedKB mappedKb = null;
+
+    /** Whether sentenceIndex is still to be built from avl on the first sentence search. */
+    private boolean sentenceIndexDeferred = false;
+
+    /** Range-partitioned trees used instead of avl when loaded with more than one shard. */
+    private ShardedAVLForest forest = null;
+
+    /** Applies changed knowledge base files to avl, created on first reload. */
+    private KBReloader reloader = null;
+
     /** Loads "term \t sentence \t confidence" lines into the AVL tree. */
     public void loadStatement(String filePath) {
+        avl.setInvertedIndex(sentenceIndex);
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
+                Statement statement = Statement.parse(line);
+                if (statement != null) {
+                    avl.insert(statement);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-                String[] parts = line.split("\t");
-                if (parts.length == 3) {
-                    String term = parts[0].trim();
-                    String sentence = parts[1].trim();
-                    double confidence = Double.parseDouble(parts[2].trim());
+    /**
+     * Loads the knowledge base from a memory-mapped file, decoding sentences only when
+     * they are read. Indexing every sentence would decode them all at load, so the
+     * sentence index is built on the first call to findSentences instead.
+     * The file must later be replaced by rename, never rewritten in place.
+     */
+    public void loadStatementMapped(String filePath, int sentenceCacheSize) {
+        avl.setInvertedIndex(null);
+        sentenceIndexDeferred = true;
+        try {
+            mappedKb = new MappedKB(filePath, sentenceCacheSize);
+            mappedKb.load(avl);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-                    avl.insert(new Statement(term, sentence, confidence));
-                }
+    /** Loads the knowledge base into shardCount range-partitioned trees built in parallel. */
+    public void loadStatement(String filePath, int shardCount) {
+        if (shardCount <= 1) {
+            loadStatement(filePath);
+            return;
+        }
+        try {
+            List<Statement> statements = Statement.readAll(filePath);
+            for (Statement statement : statements) {
+                sentenceIndex.add(statement);
+            }
+            forest = new ShardedAVLForest(statements, shardCount, 0);
+            forest.build(statements);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Applies only the differences between the loaded tree and a changed knowledge base file.
+     * New statements are read eagerly. After a mapped load, the mapped file must have been
+     * replaced by rename: if it was rewritten in place, the loaded statements already read
+     * the new bytes and cannot be diffed, so the reload is refused.
+     */
+    public void reloadStatement(String filePath) {
+        if (forest != null) {
+            throw new IllegalStateException("Reload is not supported for sharded loads");
+        }
+        if (reloader == null) {
+            reloader = new KBReloader(avl);
+        }
+        try {
+            if (mappedKb != null && !mappedKb.isIntact()) {
+                throw new IllegalStateException(
+                        "Mapped knowledge base was rewritten in place; replace it by rename to reload");
             }
+            System.out.println(reloader.reload(filePath));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -44,21 +111,23 @@ public class GenericsKbAVLApp {
 
     /** Processes queries and writes results to an output file. */
     public void handleQuery(String queriesFilePath, String outputFilePath) {
+        handleQuery(queriesFilePath, outputFilePath, false);
+    }
+
+    /** Processes queries, optionally writing results on a background thread. */
+    public void handleQuery(String queriesFilePath, String outputFilePath, boolean asyncOutput) {
         try (BufferedReader queryReader = new BufferedReader(new FileReader(queriesFilePath));
-             PrintStream fileOut = new PrintStream(new FileOutputStream(outputFilePath))) {
+             ResultWriter fileOut = new ResultWriter(outputFilePath, asyncOutput)) {
 
             String query;
             while ((query = queryReader.readLine()) != null) {
                 query = query.trim();
                 if (query.isEmpty()) continue;
 
-                // Search AVL by key (term)
-                BinaryTreeNode<Statement> foundNode = avl.find(query);
-
-                if (foundNode != null) {
-                    fileOut.println("Term found: " + query);
+                if (hasTerm(query)) {
+                    fileOut.println("Term found: ", query);
                 } else {
-                    fileOut.println("Term not found: " + query);
+                    fileOut.println("Term not found: ", query);
                 }
             }
 
@@ -67,12 +136,57 @@ public class GenericsKbAVLApp {
         }
 
         // Print instrumentation metrics
-        avl.printMetrics();
+        if (forest != null) {
+            forest.printMetrics();
+        } else {
+            avl.printMetrics();
+        }
+    }
+
+    /**
+     * Returns the tree loaded by loadStatement.
+     * 
+     * @return The AVL tree
+     */
+    public AVLTree getTree() {
+        return avl;
+    }
+
+    /**
+     * Checks whether a term is present in the loaded knowledge base.
+     * 
+     * @param term The term to look up
+     * @return true if the term is found, false otherwise
+     */
+    public boolean hasTerm(String term) {
+        if (forest != null) {
+            return forest.find(term) != null;
+        }
+        return avl.find(term) != null;
+    }
+
+    /**
+     * Searches the loaded sentences for words rather than terms.
+     * 
+     * @param words The words to search for
+     * @param matchAll true to require every word, false to accept any of them
+     * @return The matching statements, highest confidence first
+     */
+    public List<Statement> findSentences(String words, boolean matchAll) {
+        if (sentenceIndexDeferred) {
+            for (Statement statement : avl.getStatements()) {
+                sentenceIndex.add(statement);
+            }
+            avl.setInvertedIndex(sentenceIndex);
+            sentenceIndexDeferred = false;
+        }
+        return matchAll ? sentenceIndex.and(words) : sentenceIndex.or(words);
     }
 
     public static void main(String[] args) {
         GenericsKbAVLApp app = new GenericsKbAVLApp();
-        app.loadStatement("GenericsKB.txt");
+        int shards = (args.length > 0) ? Integer.parseInt(args[0]) : 1;
+        app.loadStatement("GenericsKB.txt", shards);
         app.handleQuery("GenericsKB-queries.txt", "output.txt");
     }
 }
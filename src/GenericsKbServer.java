@@ -0,0 +1,316 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.InetAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+
+/**
+ * A long-running term lookup server for a loaded knowledge base.
+ * 
+ * The knowledge base is loaded once and served on a loopback port with a
+ * line protocol: each request is a term followed by a newline, and each
+ * response is the same "Term found: " or "Term not found: " line that
+ * handleQuery writes, in request order per connection.
+ * 
+ * A single selector thread owns the AVL tree, so no locking is needed.
+ * Every request read during one selector round, from any connection, is
+ * answered as one micro-batch in which each distinct term is searched
+ * only once.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class GenericsKbServer {
+    /** Port used when none is given. */
+    public static final int DEFAULT_PORT = 7070;
+
+    /** Initial size of each connection's read and write buffers. */
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /** Longest request line accepted; a connection sending a longer one is closed. */
+    private static final int MAX_LINE = 64 * 1024;
+
+    /** Unwritten output above which a connection's requests stop being read. */
+    private static final int OUTPUT_LIMIT = 1024 * 1024;
+
+    /** The application holding the loaded tree. */
+    private final GenericsKbAVLApp app;
+
+    /** The loopback port to listen on. */
+    private final int port;
+
+    /** Number of batches answered. */
+    private long batches = 0;
+
+    /** Number of requests answered. */
+    private long requests = 0;
+
+    /** Number of tree searches made for those requests. */
+    private long lookups = 0;
+
+    /**
+     * Per-connection state.
+     */
+    private static class Connection {
+        /** Bytes read but not yet split into lines. */
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** Encoded responses not yet written. */
+        ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** Requests read in the current round. */
+        List<String> pending = new ArrayList<>();
+
+        /** The connection's registration with the selector. */
+        SelectionKey key;
+    }
+
+    /**
+     * Constructs a server over a loaded application.
+     * 
+     * @param app The application whose tree is queried
+     * @param port The loopback port to listen on
+     */
+    public GenericsKbServer(GenericsKbAVLApp app, int port) {
+        this.app = app;
+        this.port = port;
+    }
+
+    /**
+     * Serves requests until the thread is interrupted.
+     * 
+     * @throws IOException if the server socket cannot be opened
+     */
+    public void serve() throws IOException {
+        try (Selector selector = Selector.open();
+             ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            System.out.println("Serving on " + server.getLocalAddress());
+
+            List<Connection> batch = new ArrayList<>();
+            while (!Thread.currentThread().isInterrupted()) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept(server, selector);
+                        } else {
+                            if (key.isWritable()) {
+                                write(key);
+                            }
+                            if (key.isValid() && key.isReadable()
+                                    && (key.interestOps() & SelectionKey.OP_READ) != 0 && read(key)) {
+                                batch.add((Connection) key.attachment());
+                            }
+                        }
+                    } catch (IOException e) {
+                        close(key);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    answer(batch);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Accepts a new connection.
+     * 
+     * @param server The listening channel
+     * @param selector The selector to register the connection with
+     * @throws IOException if the connection cannot be configured
+     */
+    private void accept(ServerSocketChannel server, Selector selector) throws IOException {
+        SocketChannel client = server.accept();
+        if (client == null) return;
+        client.configureBlocking(false);
+        client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Connection conn = new Connection();
+        conn.key = client.register(selector, SelectionKey.OP_READ, conn);
+    }
+
+    /**
+     * Reads available bytes and splits off complete request lines.
+     * 
+     * @param key The readable connection
+     * @return true if at least one request was read
+     * @throws IOException if the read fails, the peer has closed or a line
+     *         is longer than MAX_LINE
+     */
+    private boolean read(SelectionKey key) throws IOException {
+        Connection conn = (Connection) key.attachment();
+        SocketChannel client = (SocketChannel) key.channel();
+        if (!conn.in.hasRemaining()) {
+            if (conn.in.capacity() >= MAX_LINE) {
+                throw new IOException("Request line too long");
+            }
+            conn.in = grow(conn.in);
+        }
+        if (client.read(conn.in) < 0) {
+            throw new IOException("Connection closed");
+        }
+
+        ByteBuffer in = conn.in;
+        in.flip();
+        int start = in.position();
+        for (int i = start; i < in.limit(); i++) {
+            if (in.get(i) == '\n') {
+                String query = new String(in.array(), start, i - start, StandardCharsets.UTF_8).trim();
+                if (!query.isEmpty()) {
+                    conn.pending.add(query);
+                }
+                start = i + 1;
+            }
+        }
+        in.position(start);
+        in.compact();
+        return !conn.pending.isEmpty();
+    }
+
+    /**
+     * Answers every request read in this round, searching each distinct term once.
+     * 
+     * @param batch The connections with pending requests
+     */
+    private void answer(List<Connection> batch) {
+        Map<String, Boolean> found = new HashMap<>();
+        for (Connection conn : batch) {
+            for (String query : conn.pending) {
+                if (!found.containsKey(query)) {
+                    found.put(query, app.hasTerm(query));
+                    lookups++;
+                }
+            }
+        }
+        batches++;
+
+        for (Connection conn : batch) {
+            for (String query : conn.pending) {
+                String line = (found.get(query) ? "Term found: " : "Term not found: ") + query + "\n";
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                while (conn.out.remaining() < bytes.length) {
+                    conn.out = grow(conn.out);
+                }
+                conn.out.put(bytes);
+                requests++;
+            }
+            conn.pending.clear();
+
+            try {
+                write(conn.key);
+            } catch (IOException e) {
+                close(conn.key);
+            }
+        }
+    }
+
+    /**
+     * Writes as much pending output as the socket accepts.
+     * 
+     * Write interest is registered only while output remains. While more
+     * than OUTPUT_LIMIT bytes are waiting, read interest is dropped so a
+     * client that sends requests without reading the answers cannot make
+     * the buffer grow without bound; reading resumes once it drains.
+     * 
+     * @param key The connection to write to
+     * @throws IOException if the write fails
+     */
+    private void write(SelectionKey key) throws IOException {
+        Connection conn = (Connection) key.attachment();
+        conn.out.flip();
+        ((SocketChannel) key.channel()).write(conn.out);
+        conn.out.compact();
+        if (conn.out.position() > OUTPUT_LIMIT) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (conn.out.position() > 0) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Drops a connection and closes its socket.
+     * 
+     * @param key The connection to close
+     */
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // The connection is being discarded anyway
+        }
+    }
+
+    /**
+     * Doubles the capacity of a buffer in write mode, keeping its content.
+     * 
+     * @param buffer The buffer to grow
+     * @return The larger buffer
+     */
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    /**
+     * Prints batching statistics.
+     */
+    public void printStats() {
+        System.out.println("Batches: " + batches);
+        System.out.println("Requests: " + requests);
+        System.out.println("Tree lookups: " + lookups);
+        if (batches > 0) {
+            System.out.println("Average batch size: " + (double) requests / batches);
+        }
+    }
+
+    /**
+     * Loads the knowledge base and serves it.
+     * 
+     * Metrics are exported over JMX and as Prometheus text on the next port up.
+     * 
+     * @param args Optional port and knowledge base file
+     * @throws IOException if the server cannot start
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String kbFile = (args.length > 1) ? args[1] : "GenericsKB.txt";
+
+        GenericsKbAVLApp app = new GenericsKbAVLApp();
+        app.loadStatement(kbFile);
+        AVLTreeMetrics metrics = new AVLTreeMetrics(app.getTree());
+        try {
+            metrics.register("server");
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        metrics.startHttp(port + 1);
+        System.out.println("Metrics on http://127.0.0.1:" + (port + 1) + "/metrics");
+
+        GenericsKbServer server = new GenericsKbServer(app, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::printStats));
+        server.serve();
+    }
+}
@@ -0,0 +1,239 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A full-text index over the sentences of the Statements in a knowledge base.
+ * 
+ * Each Statement is given the next id as it is added, and every word of its
+ * sentence is mapped to a compressed postings list of those ids. Words are
+ * the lower-cased runs of letters and digits in the sentence.
+ * 
+ * The index is built incrementally: attach it to an AVLTree with
+ * {@link AVLTree#setInvertedIndex(InvertedIndex)} and every inserted
+ * Statement is indexed as it arrives.
+ * 
+ * Statements are tracked by identity rather than by equals and hashCode,
+ * which cover mutable fields and would read every sentence again.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class InvertedIndex {
+    /** Indexed statements, where a statement's position is its id. */
+    private final List<Statement> statements = new ArrayList<>();
+
+    /** Postings list of each word. */
+    private final Map<String, PostingsList> postings = new HashMap<>();
+
+    /** Ids of the indexed statements, keyed by the statement instance. */
+    private final Map<Statement, List<Integer>> ids = new IdentityHashMap<>();
+
+    /** Ids of statements removed since they were indexed. */
+    private final BitSet removed = new BitSet();
+
+    /** Fraction of ids that may be removed before the index is compacted. */
+    private static final double MAX_REMOVED_FRACTION = 0.25;
+
+    /**
+     * Adds a statement to the index.
+     * 
+     * @param statement The statement to index
+     */
+    public void add(Statement statement) {
+        int id = statements.size();
+        statements.add(statement);
+        ids.computeIfAbsent(statement, s -> new ArrayList<>(1)).add(id);
+        for (String word : tokenize(statement.getSentence())) {
+            postings.computeIfAbsent(word, w -> new PostingsList()).add(id);
+        }
+    }
+
+    /**
+     * Removes a statement instance from query results.
+     * 
+     * Postings lists are append-only, so the statement's id is only marked
+     * as removed and skipped by later queries. Once more than a quarter of
+     * the ids are removed, the index is compacted, so repeated reloads keep
+     * its size proportional to the live statements.
+     * 
+     * @param statement The statement to remove
+     */
+    public void remove(Statement statement) {
+        List<Integer> indexed = ids.get(statement);
+        if (indexed == null) return;
+
+        removed.set(indexed.remove(indexed.size() - 1));
+        if (indexed.isEmpty()) {
+            ids.remove(statement);
+        }
+        if (removed.cardinality() > statements.size() * MAX_REMOVED_FRACTION) {
+            compact();
+        }
+    }
+
+    /**
+     * Rebuilds the index from its live statements, dropping removed ids.
+     * 
+     * Live statements keep their relative order, so query results are
+     * unchanged.
+     */
+    public void compact() {
+        List<Statement> live = new ArrayList<>(size());
+        for (int id = 0; id < statements.size(); id++) {
+            if (!removed.get(id)) {
+                live.add(statements.get(id));
+            }
+        }
+        statements.clear();
+        postings.clear();
+        ids.clear();
+        removed.clear();
+        for (Statement statement : live) {
+            add(statement);
+        }
+    }
+
+    /**
+     * Returns the number of ids in use, including removed ones not yet compacted.
+     * 
+     * @return The number of ids
+     */
+    public int idCount() {
+        return statements.size();
+    }
+
+    /**
+     * Returns the number of indexed statements that have not been removed.
+     * 
+     * @return The number of statements
+     */
+    public int size() {
+        return statements.size() - removed.cardinality();
+    }
+
+    /**
+     * Returns the number of distinct indexed words.
+     * 
+     * @return The vocabulary size
+     */
+    public int vocabularySize() {
+        return postings.size();
+    }
+
+    /**
+     * Returns the total number of bytes used by all postings lists.
+     * 
+     * @return The encoded size in bytes
+     */
+    public long encodedSize() {
+        long total = 0;
+        for (PostingsList list : postings.values()) {
+            total += list.encodedSize();
+        }
+        return total;
+    }
+
+    /**
+     * Finds the statements whose sentences contain every word of a query.
+     * 
+     * @param query The words to search for
+     * @return The matching statements, highest confidence first
+     */
+    public List<Statement> and(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) return new ArrayList<>();
+
+        List<PostingsList> lists = new ArrayList<>();
+        for (String word : words) {
+            PostingsList list = postings.get(word);
+            if (list == null) return new ArrayList<>();
+            lists.add(list);
+        }
+
+        // Intersect from the rarest word up so the candidate set shrinks fastest
+        lists.sort(Comparator.comparingInt(PostingsList::size));
+        int[] result = lists.get(0).toArray();
+        int resultSize = result.length;
+        for (int i = 1; i < lists.size() && resultSize > 0; i++) {
+            int[] other = lists.get(i).toArray();
+            int kept = 0;
+            int j = 0;
+            for (int k = 0; k < resultSize && j < other.length; k++) {
+                while (j < other.length && other[j] < result[k]) j++;
+                if (j < other.length && other[j] == result[k]) {
+                    result[kept++] = result[k];
+                }
+            }
+            resultSize = kept;
+        }
+
+        List<Statement> matches = new ArrayList<>(resultSize);
+        for (int k = 0; k < resultSize; k++) {
+            if (!removed.get(result[k])) {
+                matches.add(statements.get(result[k]));
+            }
+        }
+        return rank(matches);
+    }
+
+    /**
+     * Finds the statements whose sentences contain any word of a query.
+     * 
+     * @param query The words to search for
+     * @return The matching statements, highest confidence first
+     */
+    public List<Statement> or(String query) {
+        BitSet found = new BitSet(statements.size());
+        for (String word : tokenize(query)) {
+            PostingsList list = postings.get(word);
+            if (list == null) continue;
+            for (int id : list.toArray()) {
+                found.set(id);
+            }
+        }
+        found.andNot(removed);
+
+        List<Statement> matches = new ArrayList<>(found.cardinality());
+        for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)) {
+            matches.add(statements.get(id));
+        }
+        return rank(matches);
+    }
+
+    /**
+     * Orders matches by decreasing confidence, keeping insertion order for ties.
+     * 
+     * @param matches The statements to order
+     * @return The same list, sorted
+     */
+    private static List<Statement> rank(List<Statement> matches) {
+        matches.sort(Comparator.comparingDouble(Statement::getConfidence).reversed());
+        return matches;
+    }
+
+    /**
+     * Splits text into lower-cased words of letters and digits.
+     * 
+     * @param text The text to split
+     * @return The words in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applies a changed knowledge base file to an already loaded AVL tree.
+ * 
+ * The new file is parsed and sorted, then merged against an in-order
+ * traversal of the tree. Statements are matched on term and sentence;
+ * matched statements whose confidence changed are replaced, unmatched
+ * old statements are deleted and unmatched new ones are inserted. Only
+ * those changes go through the tree.
+ * 
+ * The tree is switched to copy-on-write updates, so searches on other
+ * threads keep running against a consistent tree while the delta is
+ * applied. Reloads themselves are serialised.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class KBReloader {
+    /** Orders statements by term, then sentence, then confidence. */
+    private static final Comparator<Statement> ORDER = Comparator
+            .comparing(Statement::getTerm)
+            .thenComparing(Statement::getSentence)
+            .thenComparingDouble(Statement::getConfidence);
+
+    /** The tree being kept up to date. */
+    private final AVLTree tree;
+
+    /**
+     * Summary of one reload.
+     */
+    public static class Delta {
+        /** Statements added. */
+        public int inserted;
+
+        /** Statements removed. */
+        public int removed;
+
+        /** Statements whose confidence changed. */
+        public int updated;
+
+        /** Statements left as they were. */
+        public int unchanged;
+
+        /** Time taken by the reload in milliseconds. */
+        public long reloadTime;
+
+        /**
+         * Returns the number of changes applied to the tree.
+         * 
+         * @return The total of inserts, removals and updates
+         */
+        public int changes() {
+            return inserted + removed + updated;
+        }
+
+        @Override
+        public String toString() {
+            return "Changes applied: " + changes()
+                    + " (inserted " + inserted + ", removed " + removed + ", updated " + updated
+                    + ", unchanged " + unchanged + "), reload time (ms): " + reloadTime;
+        }
+    }
+
+    /**
+     * Constructs a reloader for a tree.
+     * 
+     * @param tree The loaded tree to keep up to date
+     */
+    public KBReloader(AVLTree tree) {
+        this.tree = tree;
+        tree.setCopyOnWrite(true);
+    }
+
+    /**
+     * Brings the tree in line with a knowledge base file.
+     * 
+     * @param filePath The new knowledge base file
+     * @return A summary of the changes applied
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized Delta reload(String filePath) throws IOException {
+        long startTime = System.nanoTime();
+        List<Statement> incoming = Statement.readAll(filePath);
+        incoming.sort(ORDER);
+
+        List<Statement> current = tree.getStatements();
+        // In-order is sorted by term ignoring case; this brings it to the same order as incoming
+        current.sort(ORDER);
+
+        Delta delta = new Delta();
+        int i = 0;
+        int j = 0;
+        while (i < current.size() || j < incoming.size()) {
+            Statement old = (i < current.size()) ? current.get(i) : null;
+            Statement now = (j < incoming.size()) ? incoming.get(j) : null;
+
+            int compareResult;
+            if (old == null) {
+                compareResult = 1;
+            } else if (now == null) {
+                compareResult = -1;
+            } else {
+                compareResult = old.getTerm().compareTo(now.getTerm());
+                if (compareResult == 0) {
+                    compareResult = old.getSentence().compareTo(now.getSentence());
+                }
+            }
+
+            if (compareResult < 0) {
+                tree.delete(old);
+                delta.removed++;
+                i++;
+            } else if (compareResult > 0) {
+                tree.insert(now);
+                delta.inserted++;
+                j++;
+            } else {
+                if (Double.compare(old.getConfidence(), now.getConfidence()) != 0) {
+                    tree.delete(old);
+                    tree.insert(now);
+                    delta.updated++;
+                } else {
+                    delta.unchanged++;
+                }
+                i++;
+                j++;
+            }
+        }
+
+        delta.reloadTime = (System.nanoTime() - startTime) / 1_000_000;
+        return delta;
+    }
+
+    /**
+     * Loads one knowledge base file, then reloads it from another.
+     * 
+     * @param args The original and the changed knowledge base files
+     * @throws IOException if either file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java KBReloader <original-kb> <changed-kb>");
+            return;
+        }
+        AVLTree tree = new AVLTree();
+        for (Statement statement : Statement.readAll(args[0])) {
+            tree.insert(statement);
+        }
+        System.out.println(new KBReloader(tree).reload(args[1]));
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A binary snapshot of the statements held by an AVL tree.
+ * 
+ * The file holds a magic number, the last write-ahead log sequence number
+ * whose change it includes, the statement count and each statement's
+ * term, sentence and confidence in tree order, followed by a CRC32 of
+ * everything before it. Snapshots are written to a temporary file, synced
+ * and then renamed over the old one, so a crash leaves either the old or
+ * the new snapshot, never a partial one. The directory is synced after the
+ * rename, so once write returns the new snapshot survives a power loss.
+ * 
+ * The inverted index is not stored. It is derived from the sentences, so
+ * DurableKB rebuilds it by inserting the snapshot's statements into a tree
+ * with an index attached.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class KBSnapshot {
+    /** Identifies snapshot files ("AVLS"). */
+    private static final int MAGIC = 0x41564C53;
+
+    /**
+     * The statements read from a snapshot and the log position they cover.
+     */
+    public static class Contents {
+        /** The statements in tree order. */
+        public final List<Statement> statements;
+
+        /** The last log sequence number included in the statements. */
+        public final long sequence;
+
+        Contents(List<Statement> statements, long sequence) {
+            this.statements = statements;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Writes the statements of a tree to a snapshot file.
+     * 
+     * @param tree The tree to save
+     * @param filePath The snapshot file
+     * @param sequence The last log sequence number whose change is in the tree
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(AVLTree tree, String filePath, long sequence) throws IOException {
+        List<Statement> statements = tree.getStatements();
+
+        Path target = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(statements.size());
+            for (Statement statement : statements) {
+                out.writeUTF(statement.getTerm());
+                out.writeUTF(statement.getSentence());
+                out.writeDouble(statement.getConfidence());
+            }
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces a directory's entries to disk, making a rename in it durable.
+     * 
+     * @param dir The directory
+     * @throws IOException if the directory cannot be synced
+     */
+    private static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Reads the statements stored in a snapshot file.
+     * 
+     * @param filePath The snapshot file
+     * @return The statements in tree order and the log sequence they cover
+     * @throws IOException if the file cannot be read or fails its checksum
+     */
+    public static Contents read(String filePath) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(new FileInputStream(filePath)), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + filePath);
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            List<Statement> statements = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                statements.add(new Statement(in.readUTF(), in.readUTF(), in.readDouble()));
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Snapshot checksum mismatch: " + filePath);
+            }
+            return new Contents(statements, sequence);
+        }
+    }
+}
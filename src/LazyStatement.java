@@ -0,0 +1,46 @@
+/**
+ * A Statement whose sentence stays in the memory-mapped knowledge base
+ * file until it is asked for.
+ * 
+ * Only the term, the confidence and the position of the sentence in the
+ * file are held on the heap. The sentence is decoded by {@link MappedKB}
+ * on each call to getSentence, unless the MappedKB caches it.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class LazyStatement extends Statement {
+    /** The mapped file holding the sentence. */
+    private final MappedKB source;
+
+    /** Byte offset of the sentence in the file. */
+    private final int offset;
+
+    /** Length of the sentence in bytes. */
+    private final int length;
+
+    /**
+     * Constructor for the LazyStatement class
+     * @param term The term or keyword
+     * @param confidence The confidence score (0.0 to 1.0)
+     * @param source The mapped file holding the sentence
+     * @param offset Byte offset of the sentence in the file
+     * @param length Length of the sentence in bytes
+     */
+    public LazyStatement(String term, double confidence, MappedKB source, int offset, int length) {
+        super(term, null, confidence);
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+    * Get the sentence of this statement, decoding it from the file unless it has been set
+    * @return The sentence as a String
+    */
+    @Override
+    public String getSentence() {
+        String sentence = super.getSentence();
+        return (sentence != null) ? sentence : source.sentence(offset, length);
+    }
+}
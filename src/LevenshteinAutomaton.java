@@ -0,0 +1,115 @@
+/**
+ * A Levenshtein automaton for a fixed pattern and maximum edit distance.
+ * 
+ * The automaton is driven one character at a time and keeps one row of the
+ * edit-distance table per consumed character, so a caller walking terms in
+ * sorted order can rewind to the prefix shared with the previous term
+ * instead of starting again from the beginning.
+ * 
+ * Characters are compared without regard to case. A state is dead once
+ * every cell of its row exceeds the maximum distance; no string with the
+ * consumed prefix can then be within range of the pattern.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class LevenshteinAutomaton {
+    /** The pattern that candidate strings are measured against. */
+    private final String pattern;
+
+    /** The largest edit distance still accepted as a match. */
+    private final int maxDistance;
+
+    /** rows[i] holds the distances after consuming i characters of the candidate. */
+    private int[][] rows;
+
+    /** Number of characters whose rows are currently valid. */
+    private int depth;
+
+    /**
+     * Constructs an automaton accepting strings within a given edit distance.
+     * 
+     * @param pattern The pattern to match against
+     * @param maxDistance The largest accepted edit distance
+     * @throws IllegalArgumentException if maxDistance is negative
+     */
+    public LevenshteinAutomaton(String pattern, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Edit distance cannot be negative");
+        }
+        this.pattern = pattern.toLowerCase();
+        this.maxDistance = maxDistance;
+        this.rows = new int[this.pattern.length() + maxDistance + 2][this.pattern.length() + 1];
+        for (int j = 0; j <= this.pattern.length(); j++) {
+            rows[0][j] = j;
+        }
+        this.depth = 0;
+    }
+
+    /**
+     * Returns the number of characters consumed by the current state.
+     * 
+     * @return The current depth of the automaton
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Feeds the characters of a candidate into the automaton.
+     * 
+     * The first {@code from} characters are assumed to be already consumed
+     * and must not exceed the current depth.
+     * 
+     * @param candidate The candidate string
+     * @param from The number of leading characters to reuse from the current state
+     * @return The length of the shortest dead prefix, or -1 if the whole
+     *         candidate was consumed without reaching a dead state
+     */
+    public int advance(String candidate, int from) {
+        depth = Math.min(from, depth);
+        for (int i = depth; i < candidate.length(); i++) {
+            if (i + 1 >= rows.length) {
+                int[][] grown = new int[rows.length * 2][];
+                System.arraycopy(rows, 0, grown, 0, rows.length);
+                for (int r = rows.length; r < grown.length; r++) {
+                    grown[r] = new int[pattern.length() + 1];
+                }
+                rows = grown;
+            }
+            int[] previous = rows[i];
+            int[] current = rows[i + 1];
+            char c = Character.toLowerCase(candidate.charAt(i));
+            current[0] = previous[0] + 1;
+            int best = current[0];
+            for (int j = 1; j <= pattern.length(); j++) {
+                int substitute = previous[j - 1] + (pattern.charAt(j - 1) == c ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+                best = Math.min(best, current[j]);
+            }
+            depth = i + 1;
+            if (best > maxDistance) {
+                return depth;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the edit distance between the pattern and the consumed characters.
+     * 
+     * @return The distance of the current state
+     */
+    public int distance() {
+        return rows[depth][pattern.length()];
+    }
+
+    /**
+     * Checks whether the consumed characters are within range of the pattern.
+     * 
+     * @return true if the current state is accepting, false otherwise
+     */
+    public boolean isMatch() {
+        return distance() <= maxDistance;
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A load generator for GenericsKbServer.
+ * 
+ * Each client thread opens one connection and keeps a fixed number of
+ * requests in flight, drawing terms round-robin from a query file. The
+ * time from sending a request to reading its response is recorded, and
+ * throughput and latency percentiles are reported at the end.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class LoadGenerator {
+
+    /**
+     * Runs the load test.
+     * 
+     * @param args Optional port, clients, requests per client, requests in flight
+     *             per client and query file
+     * @throws Exception if a client fails
+     */
+    public static void main(String[] args) throws Exception {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : GenericsKbServer.DEFAULT_PORT;
+        int clients = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+        int requestsPerClient = (args.length > 2) ? Integer.parseInt(args[2]) : 20000;
+        int inFlight = (args.length > 3) ? Integer.parseInt(args[3]) : 16;
+        String queryFile = (args.length > 4) ? args[4] : "GenericsKB-queries.txt";
+
+        List<String> queries = loadQueries(queryFile);
+        long[][] latencies = new long[clients][];
+        Thread[] threads = new Thread[clients];
+        Exception[] errors = new Exception[clients];
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            threads[c] = new Thread(() -> {
+                try {
+                    latencies[client] = runClient(port, queries, client, requestsPerClient, inFlight);
+                } catch (Exception e) {
+                    errors[client] = e;
+                }
+            }, "load-client-" + c);
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        for (Exception e : errors) {
+            if (e != null) throw e;
+        }
+
+        long[] all = new long[clients * requestsPerClient];
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, c * requestsPerClient, requestsPerClient);
+        }
+        Arrays.sort(all);
+
+        System.out.println("Clients: " + clients + ", in flight per client: " + inFlight);
+        System.out.println("Requests: " + all.length);
+        System.out.printf("Throughput (req/s): %.0f%n", all.length / (elapsed / 1e9));
+        System.out.printf("Latency p50 (us): %.1f%n", percentile(all, 0.50) / 1e3);
+        System.out.printf("Latency p90 (us): %.1f%n", percentile(all, 0.90) / 1e3);
+        System.out.printf("Latency p99 (us): %.1f%n", percentile(all, 0.99) / 1e3);
+        System.out.printf("Latency p99.9 (us): %.1f%n", percentile(all, 0.999) / 1e3);
+        System.out.printf("Latency max (us): %.1f%n", all[all.length - 1] / 1e3);
+    }
+
+    /**
+     * Sends requests over one connection, keeping a window of them in flight.
+     * 
+     * @param port The server port
+     * @param queries The terms to send
+     * @param client The client number, used to stagger starting terms
+     * @param count The number of requests to send
+     * @param inFlight The number of requests kept outstanding
+     * @return The latency of each request in nanoseconds
+     * @throws IOException if the connection fails
+     */
+    private static long[] runClient(int port, List<String> queries, int client, int count, int inFlight)
+            throws IOException {
+        long[] sentAt = new long[count];
+        long[] latencies = new long[count];
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            int sent = 0;
+            int received = 0;
+            while (received < count) {
+                while (sent < count && sent - received < inFlight) {
+                    String query = queries.get((client * 7919 + sent) % queries.size());
+                    sentAt[sent] = System.nanoTime();
+                    out.write((query + "\n").getBytes(StandardCharsets.UTF_8));
+                    sent++;
+                }
+                out.flush();
+                if (in.readLine() == null) {
+                    throw new IOException("Server closed the connection");
+                }
+                latencies[received] = System.nanoTime() - sentAt[received];
+                received++;
+            }
+        }
+        return latencies;
+    }
+
+    /**
+     * Returns the value at a percentile of sorted samples.
+     * 
+     * @param sorted The samples in increasing order
+     * @param fraction The percentile as a fraction between 0 and 1
+     * @return The sample at that percentile
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Reads the non-empty trimmed lines of a query file.
+     * 
+     * @param path The query file
+     * @return The queries
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String> loadQueries(String path) throws IOException {
+        List<String> queries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) queries.add(line);
+            }
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A memory-mapped knowledge base file that loads LazyStatements.
+ * 
+ * Loading scans the mapped bytes for the same "term \t sentence \t
+ * confidence" lines that Statement.parse accepts, but decodes only the
+ * term and confidence. Each sentence is recorded as an offset and length
+ * into the mapping and decoded on demand, optionally through a small
+ * least-recently-used cache of decoded sentences.
+ * 
+ * The file is decoded as UTF-8 and must be smaller than 2 GB.
+ * 
+ * Sentences are read from the live mapping, so the file must never be
+ * rewritten in place while statements loaded from it are in use: their
+ * sentences would silently change or read past the new end of the file.
+ * Replace it by writing a new file and renaming it over the old one; the
+ * mapping keeps the old content. {@link #isIntact()} detects an in-place
+ * rewrite.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class MappedKB {
+    /** The mapped file content. */
+    private final MappedByteBuffer bytes;
+
+    /** Recently decoded sentences by offset, or null if caching is off. */
+    private final Map<Integer, String> cache;
+
+    /** The mapped file. */
+    private final Path path;
+
+    /** Attributes of the file when it was mapped. */
+    private final BasicFileAttributes mappedAttributes;
+
+    /**
+     * Maps a knowledge base file.
+     * 
+     * @param filePath The knowledge base file
+     * @param cacheSize The number of decoded sentences to cache, or 0 for none
+     * @throws IOException if the file cannot be mapped
+     */
+    public MappedKB(String filePath, int cacheSize) throws IOException {
+        path = Paths.get(filePath);
+        mappedAttributes = Files.readAttributes(path, BasicFileAttributes.class);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Knowledge base too large to map: " + filePath);
+            }
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (cacheSize > 0) {
+            cache = new LinkedHashMap<Integer, String>(cacheSize * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        } else {
+            cache = null;
+        }
+    }
+
+    /**
+     * Checks that the mapped content has not been rewritten in place.
+     * 
+     * A file replaced by rename or deleted leaves the mapping intact. Where
+     * the platform cannot identify files, any change to the path's size or
+     * modification time counts as a rewrite.
+     * 
+     * @return true if loaded sentences still read the content that was mapped
+     * @throws IOException if the file's attributes cannot be read
+     */
+    public boolean isIntact() throws IOException {
+        BasicFileAttributes now;
+        try {
+            now = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+        Object mappedKey = mappedAttributes.fileKey();
+        if (mappedKey != null && !Objects.equals(mappedKey, now.fileKey())) {
+            return true;
+        }
+        return now.size() == mappedAttributes.size()
+                && now.lastModifiedTime().equals(mappedAttributes.lastModifiedTime());
+    }
+
+    /**
+     * Inserts a LazyStatement for every well-formed line into a tree.
+     * 
+     * @param tree The tree to load into
+     * @return The number of statements loaded
+     */
+    public int load(AVLTree tree) {
+        int loaded = 0;
+        int limit = bytes.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && bytes.get(lineEnd) != '\n' && bytes.get(lineEnd) != '\r') {
+                lineEnd++;
+            }
+            Statement statement = parseLine(lineStart, lineEnd);
+            if (statement != null) {
+                tree.insert(statement);
+                loaded++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return loaded;
+    }
+
+    /**
+     * Parses one line the way Statement.parse does, without decoding the sentence.
+     * 
+     * @param start Offset of the first byte of the line
+     * @param end Offset just past the last byte of the line
+     * @return The statement, or null if the line is blank or does not have three fields
+     */
+    private Statement parseLine(int start, int end) {
+        start = skipSpace(start, end);
+        end = trimSpace(start, end);
+        if (start == end) return null;
+
+        int firstTab = -1;
+        int secondTab = -1;
+        for (int i = start; i < end; i++) {
+            if (bytes.get(i) == '\t') {
+                if (firstTab < 0) {
+                    firstTab = i;
+                } else if (secondTab < 0) {
+                    secondTab = i;
+                } else {
+                    return null;
+                }
+            }
+        }
+        if (secondTab < 0) return null;
+
+        String term = decode(skipSpace(start, firstTab), trimSpace(start, firstTab));
+        int sentenceStart = skipSpace(firstTab + 1, secondTab);
+        int sentenceEnd = trimSpace(sentenceStart, secondTab);
+        String confidence = decode(skipSpace(secondTab + 1, end), end);
+
+        return new LazyStatement(term, Double.parseDouble(confidence), this,
+                sentenceStart, sentenceEnd - sentenceStart);
+    }
+
+    /**
+     * Returns a sentence, decoding it from the mapping if it is not cached.
+     * 
+     * @param offset Byte offset of the sentence
+     * @param length Length of the sentence in bytes
+     * @return The sentence
+     */
+    public String sentence(int offset, int length) {
+        if (cache == null) {
+            return decode(offset, offset + length);
+        }
+        synchronized (cache) {
+            String sentence = cache.get(offset);
+            if (sentence == null) {
+                sentence = decode(offset, offset + length);
+                cache.put(offset, sentence);
+            }
+            return sentence;
+        }
+    }
+
+    /**
+     * Decodes a range of the mapping as UTF-8.
+     * 
+     * @param start Offset of the first byte
+     * @param end Offset just past the last byte
+     * @return The decoded text
+     */
+    private String decode(int start, int end) {
+        byte[] text = new byte[end - start];
+        bytes.get(start, text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    /** @return The first offset in [start, end) that is not whitespace, or end */
+    private int skipSpace(int start, int end) {
+        while (start < end && (bytes.get(start) & 0xFF) <= ' ') start++;
+        return start;
+    }
+
+    /** @return The offset just past the last non-whitespace byte in [start, end), or start */
+    private int trimSpace(int start, int end) {
+        while (end > start && (bytes.get(end - 1) & 0xFF) <= ' ') end--;
+        return end;
+    }
+
+    /**
+     * Compares load time and retained heap of eager and lazy loading.
+     * 
+     * @param args Optional knowledge base file and sentence cache size
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String kbFile = (args.length > 0) ? args[0] : "GenericsKB.txt";
+        int cacheSize = (args.length > 1) ? Integer.parseInt(args[1]) : 1024;
+
+        long before = usedHeap();
+        long startTime = System.nanoTime();
+        AVLTree eager = new AVLTree();
+        for (Statement statement : Statement.readAll(kbFile)) {
+            eager.insert(statement);
+        }
+        long eagerTime = System.nanoTime() - startTime;
+        long eagerHeap = usedHeap() - before;
+        System.out.printf("Eager: %d statements, load %.1f ms, heap %.1f MB%n",
+                eager.getSize(), eagerTime / 1e6, eagerHeap / 1e6);
+        eager = null;
+
+        before = usedHeap();
+        startTime = System.nanoTime();
+        AVLTree lazy = new AVLTree();
+        new MappedKB(kbFile, cacheSize).load(lazy);
+        long lazyTime = System.nanoTime() - startTime;
+        long lazyHeap = usedHeap() - before;
+        System.out.printf("Lazy:  %d statements, load %.1f ms, heap %.1f MB%n",
+                lazy.getSize(), lazyTime / 1e6, lazyHeap / 1e6);
+    }
+
+    /**
+     * Returns the heap in use after a garbage collection.
+     * 
+     * @return The used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
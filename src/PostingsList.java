@@ -0,0 +1,107 @@
+/**
+ * A compressed, append-only list of Statement ids for one token.
+ * 
+ * Ids must be appended in increasing order. Each id is stored as the gap
+ * from the previous one, written as a variable-length integer of seven
+ * bits per byte, so the dense postings of common tokens take about one
+ * byte per entry.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class PostingsList {
+    /** The encoded gaps. */
+    private byte[] data;
+
+    /** Number of bytes of data in use. */
+    private int length;
+
+    /** Number of ids in the list. */
+    private int count;
+
+    /** The most recently appended id. */
+    private int last;
+
+    /**
+     * Constructs an empty postings list.
+     */
+    public PostingsList() {
+        data = new byte[4];
+        length = 0;
+        count = 0;
+        last = 0;
+    }
+
+    /**
+     * Appends an id to the list.
+     * 
+     * Appending the most recent id again has no effect, so a token that
+     * occurs several times in one sentence is only recorded once.
+     * 
+     * @param id The id to append
+     * @throws IllegalArgumentException if the id is smaller than the last one
+     */
+    public void add(int id) {
+        if (count > 0 && id == last) return;
+        if (count > 0 && id < last) {
+            throw new IllegalArgumentException("Postings must be added in increasing order");
+        }
+
+        int gap = (count == 0) ? id : id - last;
+        if (length + 5 > data.length) {
+            byte[] grown = new byte[data.length * 2];
+            System.arraycopy(data, 0, grown, 0, length);
+            data = grown;
+        }
+        while ((gap & ~0x7F) != 0) {
+            data[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        data[length++] = (byte) gap;
+
+        last = id;
+        count++;
+    }
+
+    /**
+     * Returns the number of ids in the list.
+     * 
+     * @return The number of ids
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes used by the encoded ids.
+     * 
+     * @return The encoded size in bytes
+     */
+    public int encodedSize() {
+        return length;
+    }
+
+    /**
+     * Decodes the list into an array of ids.
+     * 
+     * @return The ids in increasing order
+     */
+    public int[] toArray() {
+        int[] ids = new int[count];
+        int id = 0;
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            id += gap;
+            ids[i] = id;
+        }
+        return ids;
+    }
+}
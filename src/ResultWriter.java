@@ -0,0 +1,232 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A buffered writer for query results.
+ * 
+ * Lines are encoded straight into a reusable byte buffer and written to a
+ * FileChannel one large chunk at a time. The bytes produced are the same
+ * as those of a PrintStream over a FileOutputStream: the platform default
+ * charset with unmappable characters replaced, and the platform line
+ * separator after each line.
+ * 
+ * In asynchronous mode, full buffers are handed to a background writer
+ * thread through a bounded queue and a fresh buffer is taken from a free
+ * pool, so encoding continues while the previous chunk is written. When
+ * the writer falls behind, the queue blocks the producer instead of
+ * letting memory grow.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class ResultWriter implements AutoCloseable {
+    /** Size of each output buffer in bytes. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Number of full buffers that may wait for the writer thread. */
+    private static final int QUEUE_CAPACITY = 4;
+
+    /** Marker telling the writer thread that no more buffers will arrive. */
+    private static final ByteBuffer END_OF_OUTPUT = ByteBuffer.allocate(0);
+
+    /** The file being written. */
+    private final FileChannel channel;
+
+    /** Encoder for the platform default charset. */
+    private final CharsetEncoder encoder;
+
+    /** The encoded line separator. */
+    private final byte[] lineSeparator;
+
+    /** The buffer currently being filled. */
+    private ByteBuffer buffer;
+
+    /** Full buffers waiting to be written, or null in synchronous mode. */
+    private final BlockingQueue<ByteBuffer> filled;
+
+    /** Written buffers ready for reuse, or null in synchronous mode. */
+    private final BlockingQueue<ByteBuffer> free;
+
+    /** The background writer, or null in synchronous mode. */
+    private final Thread writerThread;
+
+    /** The first write error raised on the writer thread. */
+    private volatile IOException failure;
+
+    /**
+     * Opens a result file, replacing any existing content.
+     * 
+     * @param path The file to write
+     * @param async true to write on a background thread
+     * @throws IOException if the file cannot be opened
+     */
+    public ResultWriter(String path, boolean async) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Charset charset = Charset.defaultCharset();
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        lineSeparator = System.lineSeparator().getBytes(charset);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        if (async) {
+            filled = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+            free = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            for (int i = 0; i < QUEUE_CAPACITY; i++) {
+                free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+            }
+            writerThread = new Thread(this::drain, "result-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        } else {
+            filled = null;
+            free = null;
+            writerThread = null;
+        }
+    }
+
+    /**
+     * Writes a prefix and a value followed by a line separator.
+     * 
+     * Equivalent to {@code println(prefix + value)} without building the
+     * concatenated string.
+     * 
+     * @param prefix The text before the value
+     * @param value The value
+     * @throws IOException if an earlier write failed
+     */
+    public void println(String prefix, String value) throws IOException {
+        encode(prefix);
+        encode(value);
+        if (buffer.remaining() < lineSeparator.length) {
+            flushBuffer();
+        }
+        buffer.put(lineSeparator);
+    }
+
+    /**
+     * Encodes text into the current buffer, flushing whenever it fills.
+     * 
+     * @param text The text to encode
+     * @throws IOException if writing a full buffer fails
+     */
+    private void encode(String text) throws IOException {
+        CharBuffer in = CharBuffer.wrap(text);
+        encoder.reset();
+        CoderResult result;
+        while ((result = encoder.encode(in, buffer, true)).isOverflow()) {
+            flushBuffer();
+        }
+        while ((result = encoder.flush(buffer)).isOverflow()) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Hands the current buffer to the file and starts a fresh one.
+     * 
+     * @throws IOException if the write fails
+     */
+    private void flushBuffer() throws IOException {
+        checkFailure();
+        buffer.flip();
+        if (writerThread == null) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            return;
+        }
+        try {
+            filled.put(buffer);
+            buffer = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing results", e);
+        }
+        buffer.clear();
+    }
+
+    /** Writes queued buffers until the end marker arrives. */
+    private void drain() {
+        try {
+            ByteBuffer next;
+            while ((next = filled.take()) != END_OF_OUTPUT) {
+                try {
+                    if (failure == null) {
+                        while (next.hasRemaining()) {
+                            channel.write(next);
+                        }
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+                free.put(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rethrows an error raised on the writer thread.
+     * 
+     * @throws IOException if a background write failed
+     */
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Background result write failed", failure);
+        }
+    }
+
+    /**
+     * Writes any buffered output and closes the file.
+     * 
+     * @throws IOException if writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (buffer.position() > 0) {
+                flushBuffer();
+            }
+        } finally {
+            try {
+                stopWriter();
+            } finally {
+                channel.close();
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * Sends the end marker to the writer thread and waits for it to finish.
+     * 
+     * The filled queue holds one slot more than there are buffers, so the
+     * marker always fits, even after a failed flush.
+     * 
+     * @throws IOException if interrupted while waiting
+     */
+    private void stopWriter() throws IOException {
+        if (writerThread == null) return;
+        try {
+            filled.put(END_OF_OUTPUT);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing results", e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A forest of AVL trees, each holding one range of the term space.
+ * 
+ * Split points are chosen from a random sample of the terms so that each
+ * shard receives a similar share of the statements. Every shard is an
+ * independent AVLTree built on its own thread, and lookups are routed to
+ * the single shard whose range covers the key.
+ * 
+ * Split points are sampled and keys routed in the same case-insensitive
+ * order as Statement.compareTo and AVLTree.find, so each shard holds a
+ * contiguous range of what a single tree would hold in order, and every
+ * spelling of a term lands in the shard that a lookup for it searches.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class ShardedAVLForest {
+    /** Number of sampled terms per shard used to pick split points. */
+    private static final int SAMPLES_PER_SHARD = 256;
+
+    /** Sorted split points; shard i holds terms below splitPoints[i]. */
+    private final String[] splitPoints;
+
+    /** The shards, in key order. */
+    private final AVLTree[] shards;
+
+    /** Wall-clock time spent building the shards, in milliseconds. */
+    private long buildTime = 0;
+
+    /**
+     * Constructs an empty forest with split points sampled from statements.
+     * 
+     * @param statements The statements that will be loaded
+     * @param shardCount The number of shards
+     * @param seed The seed for sampling split points
+     * @throws IllegalArgumentException if shardCount is less than 1
+     */
+    public ShardedAVLForest(List<Statement> statements, int shardCount, long seed) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1");
+        }
+
+        Random random = new Random(seed);
+        int sampleSize = Math.min(statements.size(), shardCount * SAMPLES_PER_SHARD);
+        String[] sample = new String[sampleSize];
+        for (int i = 0; i < sampleSize; i++) {
+            sample[i] = statements.get(random.nextInt(statements.size())).getTerm();
+        }
+        Arrays.sort(sample, String.CASE_INSENSITIVE_ORDER);
+
+        List<String> splits = new ArrayList<>();
+        for (int i = 1; i < shardCount && sampleSize > 0; i++) {
+            String split = sample[i * sampleSize / shardCount];
+            if (splits.isEmpty() || !splits.get(splits.size() - 1).equalsIgnoreCase(split)) {
+                splits.add(split);
+            }
+        }
+        splitPoints = splits.toArray(new String[0]);
+
+        shards = new AVLTree[splitPoints.length + 1];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new AVLTree();
+        }
+    }
+
+    /**
+     * Returns the shard whose range covers a key.
+     * 
+     * @param key The key to route
+     * @return The shard index
+     */
+    public int shardFor(String key) {
+        int index = Arrays.binarySearch(splitPoints, key, String.CASE_INSENSITIVE_ORDER);
+        return (index >= 0) ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Returns the number of shards.
+     * 
+     * @return The shard count
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Routes statements to their shards and builds all shards in parallel.
+     * 
+     * Within each shard, statements are inserted in their original order.
+     * 
+     * @param statements The statements to load
+     */
+    public void build(List<Statement> statements) {
+        List<List<Statement>> partitions = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (Statement statement : statements) {
+            partitions.get(shardFor(statement.getTerm())).add(statement);
+        }
+
+        long startTime = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(shards.length);
+        try {
+            List<Future<?>> builds = new ArrayList<>();
+            for (int i = 0; i < shards.length; i++) {
+                AVLTree shard = shards[i];
+                List<Statement> partition = partitions.get(i);
+                builds.add(pool.submit(() -> {
+                    for (Statement statement : partition) {
+                        shard.insert(statement);
+                    }
+                }));
+            }
+            for (Future<?> b : builds) {
+                b.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building shards", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard build failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        buildTime += (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    /**
+     * Finds a node with a given key in the shard covering it.
+     * 
+     * @param key The key to search for
+     * @return The node containing the key, or null if not found
+     */
+    public BinaryTreeNode find(String key) {
+        return shards[shardFor(key)].find(key);
+    }
+
+    /**
+     * Prints the metrics of all shards rolled up, followed by each shard's share.
+     * 
+     * Comparison, rotation and time totals are summed over the shards; the
+     * maximum height is the largest of any shard.
+     */
+    public void printMetrics() {
+        long searchComparisons = 0;
+        long insertComparisons = 0;
+        long singleRotations = 0;
+        long doubleRotations = 0;
+        long insertionTime = 0;
+        long searchTime = 0;
+        int maxHeight = 0;
+        for (AVLTree shard : shards) {
+            searchComparisons += shard.getSearchComparisons();
+            insertComparisons += shard.getInsertComparisons();
+            singleRotations += shard.getSingleRotations();
+            doubleRotations += shard.getDoubleRotations();
+            insertionTime += shard.getInsertionTime();
+            searchTime += shard.getSearchTime();
+            maxHeight = Math.max(maxHeight, shard.getMaxHeight());
+        }
+
+        System.out.println("Total comparisons: " + (searchComparisons + insertComparisons));
+        System.out.println("Search comparisons: " + searchComparisons);
+        System.out.println("Insert comparisons: " + insertComparisons);
+        System.out.println("Single rotations: " + singleRotations);
+        System.out.println("Double rotations: " + doubleRotations);
+        System.out.println("Total insertion time (ms): " + insertionTime);
+        System.out.println("Total search time (ms): " + searchTime);
+        System.out.println("Max tree height: " + maxHeight);
+        System.out.println("Shards: " + shards.length);
+        System.out.println("Parallel build time (ms): " + buildTime);
+        for (int i = 0; i < shards.length; i++) {
+            System.out.println("Shard " + i + ": size " + shards[i].getSize()
+                    + ", height " + shards[i].getMaxHeight()
+                    + ", search comparisons " + shards[i].getSearchComparisons());
+        }
+    }
+
+    /**
+     * Measures build time against shard count, doubling up to the number of cores.
+     * 
+     * @param args Optional knowledge base file and number of repetitions
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String kbFile = (args.length > 0) ? args[0] : "GenericsKB.txt";
+        int repetitions = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        List<Statement> statements = Statement.readAll(kbFile);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Statements: " + statements.size() + ", cores: " + cores);
+        long baseline = 0;
+        for (int shardCount = 1; shardCount <= cores; shardCount *= 2) {
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < repetitions; r++) {
+                ShardedAVLForest forest = new ShardedAVLForest(statements, shardCount, r);
+                long startTime = System.nanoTime();
+                forest.build(statements);
+                best = Math.min(best, System.nanoTime() - startTime);
+            }
+            if (shardCount == 1) baseline = best;
+            System.out.printf("Shards %d: build %.1f ms, speedup %.2fx%n",
+                    shardCount, best / 1e6, (double) baseline / best);
+        }
+    }
+}
@@ -4,6 +4,13 @@
  * OLBCHI002
  */
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 public class Statement implements Comparable<Statement> {
    private String term;
    private String sentence;
@@ -70,13 +77,70 @@ public class Statement implements Comparable<Statement> {
    }
    
    /**
-    * Compare this Statement to another Statement based on their terms
+    * Parse a "term \t sentence \t confidence" line from the knowledge base
+    * @param line The line to parse
+    * @return The Statement, or null if the line is blank or does not have three fields
+    * @throws NumberFormatException if the confidence is not a number
+    */
+   public static Statement parse(String line) {
+       line = line.trim();
+       if (line.isEmpty()) return null;
+
+       String[] parts = line.split("\t");
+       if (parts.length != 3) return null;
+       return new Statement(parts[0].trim(), parts[1].trim(), Double.parseDouble(parts[2].trim()));
+   }
+
+   /**
+    * Compare this Statement to another Statement based on their terms, ignoring case
+    * so that the tree order matches case-insensitive lookups
     * @param other The other Statement to compare with
     * @return negative if this term comes before, 0 if equal, positive if this term comes after
     */
    @Override
    public int compareTo(Statement other) {
-       return this.term.compareTo(other.term);
+       return this.term.compareToIgnoreCase(other.term);
+   }
+
+   /**
+    * Check whether another object is a Statement with the same term, sentence and confidence
+    * @param other The object to compare with
+    * @return true if all three fields are equal, false otherwise
+    */
+   @Override
+   public boolean equals(Object other) {
+       if (this == other) return true;
+       if (!(other instanceof Statement)) return false;
+       Statement that = (Statement) other;
+       return term.equals(that.term) && getSentence().equals(that.getSentence())
+               && Double.compare(confidence, that.confidence) == 0;
+   }
+
+   /**
+    * Hash code consistent with equals
+    * @return The hash of the term, sentence and confidence
+    */
+   @Override
+   public int hashCode() {
+       return Objects.hash(term, getSentence(), confidence);
+   }
+
+   /**
+    * Read every well-formed statement from a knowledge base file
+    * @param filePath The knowledge base file
+    * @return The statements in file order
+    * @throws IOException if the file cannot be read
+    */
+   public static List<Statement> readAll(String filePath) throws IOException {
+       List<Statement> statements = new ArrayList<>();
+       try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+           String line;
+           while ((line = reader.readLine()) != null) {
+               Statement statement = parse(line);
+               if (statement != null) statements.add(statement);
+           }
+       }
+       return statements;
    }
    
 
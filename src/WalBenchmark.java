@@ -0,0 +1,87 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Measures sustained insert throughput of DurableKB with durability on and off.
+ * 
+ * Several writer threads insert fresh statements for a fixed time. With
+ * durability on, every acknowledged insert has been forced to disk, and
+ * the number of group writes shows how many inserts shared each fsync.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class WalBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * 
+     * @param args Optional writer thread count and seconds per run
+     * @throws Exception if a run fails
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        run(false, threads, seconds);
+        run(true, threads, seconds);
+    }
+
+    /**
+     * Runs one timed insert load against a fresh knowledge base.
+     * 
+     * @param durable Whether log groups are forced to disk
+     * @param threads The number of writer threads
+     * @param seconds How long to insert for
+     * @throws Exception if the run fails
+     */
+    private static void run(boolean durable, int threads, int seconds) throws Exception {
+        Path dir = Files.createTempDirectory("wal-bench");
+        Path emptyKb = Files.createFile(dir.resolve("empty.txt"));
+        AtomicLong inserts = new AtomicLong();
+        Thread[] writers = new Thread[threads];
+        IOException[] errors = new IOException[threads];
+
+        try (DurableKB kb = new DurableKB(new AVLTree(), emptyKb.toString(),
+                dir.resolve("kb.snapshot").toString(), dir.resolve("kb.wal").toString(), durable)) {
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            long startTime = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                final int writer = t;
+                writers[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; System.nanoTime() < deadline; i++) {
+                            kb.insert(new Statement("term" + writer + "-" + i,
+                                    "Sentence " + i + " from writer " + writer + ".", 1.0));
+                            inserts.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors[writer] = e;
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            double elapsed = (System.nanoTime() - startTime) / 1e9;
+
+            for (IOException e : errors) {
+                if (e != null) throw e;
+            }
+            long groups = kb.getLog().getGroups();
+            System.out.println("Durability " + (durable ? "on" : "off") + ", " + threads + " writers:");
+            System.out.printf("  Inserts: %d (%.0f per second)%n", inserts.get(), inserts.get() / elapsed);
+            System.out.printf("  Log groups: %d (%.1f inserts per group)%n",
+                    groups, groups > 0 ? (double) inserts.get() / groups : 0.0);
+            System.out.println("  Log size (bytes): " + kb.getLog().size());
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only search tree over the terms of an AVLTree, shaped by how
+ * often each term is queried.
+ * 
+ * Every subtree is rooted at the term that best splits the query weight
+ * of its range in half, counting both hits on terms and misses that fall
+ * between them, so popular terms move towards the root (Mehlhorn's
+ * weight-balancing rule, which stays within a small constant of the
+ * optimal expected cost). To keep unpopular terms reachable, a root is
+ * only chosen where both sides still fit in the remaining depth budget,
+ * which is the height of a perfectly balanced tree plus a fixed slack.
+ * 
+ * Terms are ordered and compared in lower case, and each distinct term
+ * keeps its highest-confidence statement. Searches are counted in
+ * searchComparisons the same way AVLTree counts them, so the two can be
+ * compared directly.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class WeightedQueryIndex extends BinaryTree {
+    /** Extra levels allowed beyond a perfectly balanced tree. */
+    public static final int DEFAULT_DEPTH_SLACK = 2;
+
+    /** Number of comparisons made during search operations. */
+    private long searchComparisons = 0;
+
+    /** Number of search operations performed. */
+    private long searchCount = 0;
+
+    /** Expected comparisons per search under the query weights used to build the tree. */
+    private double expectedComparisons = 0;
+
+    /** Lower-cased terms in order. */
+    private String[] keys;
+
+    /** Statement kept for each term. */
+    private Statement[] statements;
+
+    /** Prefix sums of the interleaved gap and term weights. */
+    private long[] prefix;
+
+    /** Weighted comparison total accumulated while building. */
+    private double weightedCost = 0;
+
+    /**
+     * Builds the index from a loaded tree and observed query counts.
+     * 
+     * @param source The tree whose terms are indexed
+     * @param queryCounts How many times each query was seen
+     * @param depthSlack Extra levels allowed beyond a perfectly balanced tree
+     */
+    public WeightedQueryIndex(AVLTree source, Map<String, Integer> queryCounts, int depthSlack) {
+        List<Statement> sorted = source.getStatements();
+        sorted.sort((a, b) -> a.getTerm().toLowerCase().compareTo(b.getTerm().toLowerCase()));
+
+        List<String> distinctKeys = new ArrayList<>();
+        List<Statement> best = new ArrayList<>();
+        for (Statement statement : sorted) {
+            String key = statement.getTerm().toLowerCase();
+            int last = distinctKeys.size() - 1;
+            if (last >= 0 && distinctKeys.get(last).equals(key)) {
+                if (statement.getConfidence() > best.get(last).getConfidence()) {
+                    best.set(last, statement);
+                }
+            } else {
+                distinctKeys.add(key);
+                best.add(statement);
+            }
+        }
+        keys = distinctKeys.toArray(new String[0]);
+        statements = best.toArray(new Statement[0]);
+
+        // Slot 2i holds misses just before keys[i], slot 2i+1 hits on keys[i]
+        int n = keys.length;
+        long[] weights = new long[2 * n + 1];
+        for (Map.Entry<String, Integer> entry : queryCounts.entrySet()) {
+            int index = Arrays.binarySearch(keys, entry.getKey().toLowerCase());
+            int slot = (index >= 0) ? 2 * index + 1 : 2 * (-index - 1);
+            weights[slot] += entry.getValue();
+        }
+        prefix = new long[weights.length + 1];
+        for (int i = 0; i < weights.length; i++) {
+            prefix[i + 1] = prefix[i] + weights[i];
+        }
+
+        int levels = levelsFor(n) + Math.max(0, depthSlack);
+        root = build(0, n, levels, 0);
+        long total = prefix[prefix.length - 1];
+        expectedComparisons = (total > 0) ? weightedCost / total : 0;
+
+        keys = null;
+        statements = null;
+        prefix = null;
+    }
+
+    /**
+     * Builds the subtree for keys[lo..hi) within a depth budget.
+     * 
+     * @param lo The first key of the range
+     * @param hi One past the last key of the range
+     * @param levels The number of levels the subtree may use
+     * @param depth The depth of the subtree's root
+     * @return The root of the subtree
+     */
+    private BinaryTreeNode build(int lo, int hi, int levels, int depth) {
+        if (lo == hi) {
+            // A miss here costs a comparison at each node above plus the null check
+            weightedCost += (double) weightBetween(2 * lo, 2 * lo + 1) * (depth + 1);
+            return null;
+        }
+
+        long maxChild = (1L << (levels - 1)) - 1;
+        int first = (int) Math.max(lo, hi - 1 - maxChild);
+        int last = (int) Math.min(hi - 1, lo + maxChild);
+
+        int r;
+        long total = weightBetween(2 * lo, 2 * hi + 1);
+        if (total == 0) {
+            r = (lo + hi) >>> 1;
+        } else {
+            // First key whose slot reaches half of the range's weight
+            long half = prefix[2 * lo] + (total + 1) / 2;
+            int a = lo;
+            int b = hi - 1;
+            while (a < b) {
+                int mid = (a + b) >>> 1;
+                if (prefix[2 * mid + 2] < half) a = mid + 1; else b = mid;
+            }
+            r = a;
+            if (r > lo && Math.abs(balanceAt(lo, hi, r - 1)) < Math.abs(balanceAt(lo, hi, r))) {
+                r--;
+            }
+        }
+        r = Math.max(first, Math.min(last, r));
+
+        weightedCost += (double) weightBetween(2 * r + 1, 2 * r + 2) * (depth + 1);
+        BinaryTreeNode node = new BinaryTreeNode(statements[r]);
+        node.left = build(lo, r, levels - 1, depth + 1);
+        node.right = build(r + 1, hi, levels - 1, depth + 1);
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        return node;
+    }
+
+    /**
+     * Returns the weight on the left of a candidate root minus the weight on its right.
+     * 
+     * @param lo The first key of the range
+     * @param hi One past the last key of the range
+     * @param r The candidate root
+     * @return The weight imbalance
+     */
+    private long balanceAt(int lo, int hi, int r) {
+        return weightBetween(2 * lo, 2 * r + 1) - weightBetween(2 * r + 2, 2 * hi + 1);
+    }
+
+    /**
+     * Returns the total weight of slots [from, to).
+     * 
+     * @param from The first slot
+     * @param to One past the last slot
+     * @return The weight
+     */
+    private long weightBetween(int from, int to) {
+        return prefix[to] - prefix[from];
+    }
+
+    /**
+     * Returns the number of levels in a perfectly balanced tree of n nodes.
+     * 
+     * @param n The number of nodes
+     * @return The smallest number of levels that can hold n nodes
+     */
+    private static int levelsFor(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n);
+    }
+
+    /**
+     * Calculates the height of a given node.
+     * 
+     * @param node The node to calculate height for
+     * @return Height of the node, or -1 if node is null
+     */
+    private static int height(BinaryTreeNode node) {
+        return (node != null) ? node.height : -1;
+    }
+
+    /**
+     * Finds a node with a given key in the index.
+     * 
+     * @param key The key to search for
+     * @return The node containing the key, or null if not found
+     */
+    public BinaryTreeNode find(String key) {
+        searchCount++;
+        return find(root, key.toLowerCase());
+    }
+
+    /**
+     * Recursive helper method for finding a node with a given key.
+     * 
+     * @param node The current node in the recursive search
+     * @param key The lower-cased key to search for
+     * @return The node containing the key, or null if not found
+     */
+    private BinaryTreeNode find(BinaryTreeNode node, String key) {
+        searchComparisons++;  // Count comparisons
+        if (node == null) return null;
+
+        int compareResult = key.compareTo(((Statement) node.data).getTerm().toLowerCase());
+        if (compareResult == 0) {
+            return node;
+        } else if (compareResult < 0) {
+            return find(node.left, key);
+        } else {
+            return find(node.right, key);
+        }
+    }
+
+    /**
+     * Returns the number of comparisons made during search operations.
+     * 
+     * @return The search comparison count
+     */
+    public long getSearchComparisons() {
+        return searchComparisons;
+    }
+
+    /**
+     * Returns the expected comparisons per search under the build weights.
+     * 
+     * @return The expected comparisons per search
+     */
+    public double getExpectedComparisons() {
+        return expectedComparisons;
+    }
+
+    /**
+     * Prints search metrics next to the expected cost.
+     */
+    public void printMetrics() {
+        System.out.println("Search comparisons: " + searchComparisons);
+        System.out.printf("Expected comparisons per search: %.3f%n", expectedComparisons);
+        if (searchCount > 0) {
+            System.out.printf("Measured comparisons per search: %.3f%n", (double) searchComparisons / searchCount);
+        }
+        System.out.println("Max tree height: " + height(root));
+    }
+
+    /**
+     * Counts the non-empty trimmed lines of a query log.
+     * 
+     * @param filePath The query log
+     * @return How many times each query appears
+     * @throws IOException if the log cannot be read
+     */
+    public static Map<String, Integer> countQueries(String filePath) throws IOException {
+        Map<String, Integer> counts = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) counts.merge(line, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Compares search comparisons of the AVL tree and the weighted index.
+     * 
+     * @param args Optional knowledge base, training query log, test query log and depth slack
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String kbFile = (args.length > 0) ? args[0] : "GenericsKB.txt";
+        String trainFile = (args.length > 1) ? args[1] : "GenericsKB-queries.txt";
+        String testFile = (args.length > 2) ? args[2] : trainFile;
+        int slack = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_DEPTH_SLACK;
+
+        AVLTree avl = new AVLTree();
+        for (Statement statement : Statement.readAll(kbFile)) {
+            avl.insert(statement);
+        }
+        WeightedQueryIndex index = new WeightedQueryIndex(avl, countQueries(trainFile), slack);
+
+        int searches = 0;
+        int avlFound = 0;
+        int indexFound = 0;
+        long before = avl.getSearchComparisons();
+        for (Map.Entry<String, Integer> entry : countQueries(testFile).entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                if (avl.find(entry.getKey()) != null) avlFound++;
+                if (index.find(entry.getKey()) != null) indexFound++;
+                searches++;
+            }
+        }
+
+        System.out.println("Searches: " + searches + " (found by AVL: " + avlFound + ", by index: " + indexFound + ")");
+        System.out.println("AVL tree:");
+        System.out.println("Search comparisons: " + (avl.getSearchComparisons() - before));
+        System.out.printf("Measured comparisons per search: %.3f%n",
+                (double) (avl.getSearchComparisons() - before) / searches);
+        System.out.println("Max tree height: " + avl.height(avl.root));
+        System.out.println("Weighted index:");
+        index.printMetrics();
+    }
+}
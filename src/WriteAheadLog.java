@@ -0,0 +1,359 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of insert and delete operations on an AVL tree.
+ * 
+ * Each record is framed as its payload length, the payload (sequence
+ * number, operation, term, sentence and confidence) and a CRC32 of the
+ * payload. On replay, the first short or corrupt record marks the end of
+ * the log: it can only be a write torn by a crash, so it and anything
+ * after it are truncated.
+ * 
+ * Sequence numbers keep increasing across resets and restarts. A snapshot
+ * records the last sequence it covers, and replay skips those records, so
+ * a crash between writing a snapshot and resetting the log does not apply
+ * the same changes twice.
+ * 
+ * Appending is split into {@link #enqueue} and {@link #sync}. Records
+ * from many threads collect in a pending buffer; the first thread to
+ * sync writes the whole buffer and forces it to disk once, covering every
+ * record queued so far, while the others wait for it (group commit).
+ * With durability off, records are written to the file but not forced,
+ * so they survive a process crash but not an operating system crash.
+ * 
+ * @author Chioma Olebuike
+ * @version 1.0
+ */
+public class WriteAheadLog implements AutoCloseable {
+    /** Operation code for an insert. */
+    public static final byte INSERT = 1;
+
+    /** Operation code for a delete. */
+    public static final byte DELETE = 2;
+
+    /** The log file. */
+    private final FileChannel channel;
+
+    /** Whether each group of records is forced to disk before it is acknowledged. */
+    private final boolean durable;
+
+    /** Guards the buffers and counters below. */
+    private final Object lock = new Object();
+
+    /** Records queued but not yet written. */
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024);
+
+    /** Buffer swapped in while pending is being written. */
+    private ByteArrayOutputStream spare = new ByteArrayOutputStream(64 * 1024);
+
+    /** Sequence number of the last queued record. */
+    private long appended = 0;
+
+    /** Sequence number of the last record written (and forced when durable). */
+    private long synced = 0;
+
+    /** Whether a thread is currently writing a group. */
+    private boolean flushing = false;
+
+    /** The error that failed a group write, kept until the log is reset. */
+    private IOException failure = null;
+
+    /** Records after this sequence number and up to lostThrough were dropped by a reset. */
+    private long lostAfter = 0;
+
+    /** The last record dropped by a reset. */
+    private long lostThrough = 0;
+
+    /** Number of group writes made. */
+    private long groups = 0;
+
+    /**
+     * Opens or creates a log file.
+     * 
+     * @param filePath The log file
+     * @param durable true to force every group to disk before acknowledging it
+     * @throws IOException if the file cannot be opened
+     */
+    public WriteAheadLog(String filePath, boolean durable) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.durable = durable;
+        channel.position(channel.size());
+    }
+
+    /**
+     * Applies every intact record not yet covered by a snapshot to a tree.
+     * 
+     * Must be called before any record is appended. A torn tail is
+     * truncated so that new records follow the last intact one, and new
+     * sequence numbers continue after both the snapshot and the log.
+     * 
+     * @param tree The tree to apply the records to
+     * @param covered The last sequence number already in the tree's snapshot
+     * @return The number of records applied
+     * @throws IOException if the log cannot be read
+     */
+    public int replay(AVLTree tree, long covered) throws IOException {
+        channel.position(0);
+        InputStream stream = Channels.newInputStream(channel);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        long validEnd = 0;
+        long last = covered;
+        int applied = 0;
+        CRC32 crc = new CRC32();
+
+        while (true) {
+            byte[] payload;
+            int checksum;
+            try {
+                int length = in.readInt();
+                if (length <= 0 || length > channel.size()) break;
+                payload = new byte[length];
+                in.readFully(payload);
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) break;
+
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+            long sequence = record.readLong();
+            byte op = record.readByte();
+            Statement statement = new Statement(record.readUTF(), record.readUTF(), record.readDouble());
+            validEnd += 4 + payload.length + 4;
+            if (sequence <= covered) continue;
+
+            if (op == INSERT) {
+                tree.insert(statement);
+            } else if (op == DELETE) {
+                tree.delete(statement);
+            }
+            applied++;
+            last = Math.max(last, sequence);
+        }
+
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+        synchronized (lock) {
+            appended = last;
+            synced = last;
+        }
+        return applied;
+    }
+
+    /**
+     * Queues a record without waiting for it to reach the file.
+     * 
+     * @param op INSERT or DELETE
+     * @param statement The statement inserted or deleted
+     * @return The record's sequence number, to pass to {@link #sync}
+     * @throws IOException if the record cannot be encoded or an earlier write failed
+     */
+    public long enqueue(byte op, Statement statement) throws IOException {
+        synchronized (lock) {
+            if (failure != null) throw new IOException("Log write failed", failure);
+            long sequence = appended + 1;
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream payload = new DataOutputStream(bytes);
+            payload.writeLong(sequence);
+            payload.writeByte(op);
+            payload.writeUTF(statement.getTerm());
+            payload.writeUTF(statement.getSentence());
+            payload.writeDouble(statement.getConfidence());
+            byte[] record = bytes.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(record);
+
+            DataOutputStream out = new DataOutputStream(pending);
+            out.writeInt(record.length);
+            out.write(record);
+            out.writeInt((int) crc.getValue());
+            appended = sequence;
+            return sequence;
+        }
+    }
+
+    /**
+     * Waits until a record has been written, writing the pending group if no
+     * other thread is doing so.
+     * 
+     * @param sequence The sequence number returned by {@link #enqueue}
+     * @throws IOException if the group containing the record failed to write
+     *         or the record was dropped by a reset
+     */
+    public void sync(long sequence) throws IOException {
+        ByteArrayOutputStream batch;
+        long upTo;
+        synchronized (lock) {
+            while (true) {
+                if (sequence > lostAfter && sequence <= lostThrough) {
+                    throw new IOException("Log record dropped after a write failure");
+                }
+                if (synced >= sequence) return;
+                if (failure != null) throw new IOException("Log write failed", failure);
+                if (!flushing) break;
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for log sync", e);
+                }
+            }
+            flushing = true;
+            batch = pending;
+            pending = spare;
+            upTo = appended;
+        }
+
+        IOException error = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (durable) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (lock) {
+            batch.reset();
+            spare = batch;
+            flushing = false;
+            groups++;
+            if (error != null) {
+                failure = error;
+            } else {
+                synced = upTo;
+            }
+            lock.notifyAll();
+        }
+        if (error != null) throw error;
+    }
+
+    /**
+     * Discards every record, once their effects are captured in a snapshot.
+     * 
+     * Waits for a group write in progress, then drops queued records and
+     * empties the file. Threads waiting on dropped records are released
+     * with an error, and a failure of an earlier write is cleared.
+     * 
+     * @throws IOException if the file cannot be truncated
+     */
+    public void reset() throws IOException {
+        synchronized (lock) {
+            while (flushing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while resetting log", e);
+                }
+            }
+            pending.reset();
+            channel.truncate(0);
+            channel.position(0);
+            if (durable) {
+                channel.force(true);
+            }
+            if (appended > synced) {
+                lostAfter = synced;
+                lostThrough = appended;
+            }
+            synced = appended;
+            failure = null;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the current size of the log file.
+     * 
+     * @return The size in bytes
+     * @throws IOException if the size cannot be read
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Returns the sequence number of the last record written.
+     * 
+     * @return The last written sequence number
+     */
+    public long getSynced() {
+        synchronized (lock) {
+            return synced;
+        }
+    }
+
+    /**
+     * Returns whether a write has failed since the log was opened or last reset.
+     * 
+     * @return true if the log refuses new records
+     */
+    public boolean hasFailed() {
+        synchronized (lock) {
+            return failure != null;
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last record appended.
+     * 
+     * @return The last sequence number, or the last one replayed if none was appended since
+     */
+    public long getRecords() {
+        synchronized (lock) {
+            return appended;
+        }
+    }
+
+    /**
+     * Returns the number of group writes made since the log was opened.
+     * 
+     * @return The group count
+     */
+    public long getGroups() {
+        synchronized (lock) {
+            return groups;
+        }
+    }
+
+    /**
+     * Writes any queued records and closes the file.
+     * 
+     * @throws IOException if writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        long last;
+        synchronized (lock) {
+            last = appended;
+        }
+        try {
+            sync(last);
+        } finally {
+            channel.close();
+        }
+    }
+}